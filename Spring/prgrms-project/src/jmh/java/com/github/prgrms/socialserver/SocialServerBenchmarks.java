@@ -0,0 +1,29 @@
+package com.github.prgrms.socialserver;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * src/jmh/java 의 모든 벤치마크를 실행하고 결과를 JSON 으로 남긴다.
+ * 첫 번째 인자로 결과 파일 경로를, 두 번째 인자로 실행할 벤치마크 정규식을 받는다.
+ * 기본값은 target/jmh-result.json 과 전체 벤치마크이다.
+ * jmh/pom.xml 로 빌드한 jmh/target/benchmarks.jar 의 진입점이다.
+ */
+public class SocialServerBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String result = args.length > 0 ? args[0] : "target/jmh-result.json";
+        String include = args.length > 1 ? args[1] : SocialServerBenchmarks.class.getPackage().getName() + ".*Benchmark";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.github.prgrms.socialserver.domain;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.regex.Pattern.matches;
+
+/**
+ * userRowMapper 가 100만 행을 읽을 때처럼 Email 을 생성하고 name, domain 을 꺼내는 비용을 비교한다.
+ * legacy 는 정규식 검사와 split 을 쓰던 이전 구현이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private String[] addresses;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        addresses = new String[ROWS];
+        for (int i = 0; i < ROWS; i++)
+            addresses[i] = "user" + i + "@domain" + random.nextInt(100) + ".com";
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRows(Blackhole blackhole) {
+        for (String address : addresses) {
+            Email email = new Email(address);
+            blackhole.consume(email.getName());
+            blackhole.consume(email.getDomain());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRowsLegacy(Blackhole blackhole) {
+        for (String address : addresses) {
+            LegacyEmail email = new LegacyEmail(address);
+            blackhole.consume(email.getName());
+            blackhole.consume(email.getDomain());
+        }
+    }
+
+    static class LegacyEmail {
+        private final String address;
+
+        LegacyEmail(String address) {
+            if (!matches("[\\w~\\-.+]+@[\\w~\\-]+(\\.[\\w~\\-]+)+", address))
+                throw new IllegalArgumentException("Invalid email address: " + address);
+            this.address = address;
+        }
+
+        String getName() {
+            String[] tokens = address.split("@");
+            return tokens.length == 2 ? tokens[0] : null;
+        }
+
+        String getDomain() {
+            String[] tokens = address.split("@");
+            return tokens.length == 2 ? tokens[1] : null;
+        }
+    }
+}
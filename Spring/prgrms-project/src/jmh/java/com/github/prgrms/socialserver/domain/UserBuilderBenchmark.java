@@ -0,0 +1,47 @@
+package com.github.prgrms.socialserver.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserBuilderBenchmark {
+
+    private Email email;
+
+    private LocalDateTime now;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        email = new Email("tester@gmail.com");
+        now = LocalDateTime.now();
+        user = new User(email, "1234");
+    }
+
+    @Benchmark
+    public User build() {
+        return new User.Builder()
+                .seq(1L)
+                .email(email)
+                .passwd("1234")
+                .login_count(3)
+                .last_login_at(now)
+                .create_at(now)
+                .build();
+    }
+
+    @Benchmark
+    public User copy() {
+        return new User.Builder(user)
+                .seq(1L)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.domain.UserSearchPage;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 사용자 100만 명을 색인한 EmailSearchUserRepository 의 검색 지연을 잰다.
+ * 색인은 streamAll 만 흉내 내는 UserRepository 로 만든다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class EmailSearchBenchmark {
+
+    private static final String[] DOMAINS = {
+            "gmail.com", "naver.com", "daum.net", "kakao.com", "hanmail.net",
+            "mail.gmail.com", "prgrms.com", "dev.prgrms.com", "outlook.com", "yahoo.co.kr"
+    };
+
+    @Param("1000000")
+    private int users;
+
+    private EmailSearchUserRepository repository;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        UserRepository source = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("streamAll") && args.length == 2) {
+                        Set<UserField> fields = (Set<UserField>) args[0];
+                        Consumer<UserProjection> consumer = (Consumer<UserProjection>) args[1];
+                        for (int i = 0; i < users; i++)
+                            consumer.accept(new UserProjection(fields, i + 1, emailOf(i), 0, null, null));
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        repository = new EmailSearchUserRepository(source);
+        repository.rebuild();
+    }
+
+    @Benchmark
+    public UserSearchPage prefix() {
+        return repository.search("user" + ThreadLocalRandom.current().nextInt(1000), null, null, 100);
+    }
+
+    @Benchmark
+    public UserSearchPage domain() {
+        return repository.search(null, DOMAINS[ThreadLocalRandom.current().nextInt(DOMAINS.length)], null, 100);
+    }
+
+    @Benchmark
+    public UserSearchPage domainAndPrefix() {
+        return repository.search("user" + ThreadLocalRandom.current().nextInt(100), "gmail.com", null, 100);
+    }
+
+    @Benchmark
+    public UserSearchPage domainFromCursor() {
+        int i = ThreadLocalRandom.current().nextInt(users);
+        Email email = emailOf(i);
+        String cursor = new StringBuilder(email.getDomain()).reverse() + "@" + email.getName();
+        return repository.search(null, email.getDomain(), cursor, 100);
+    }
+
+    private static Email emailOf(int i) {
+        return new Email("user" + i + "@" + DOMAINS[i % DOMAINS.length]);
+    }
+}
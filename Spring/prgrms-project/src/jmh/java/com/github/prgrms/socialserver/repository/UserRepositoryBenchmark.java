@@ -0,0 +1,88 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+/**
+ * 내장 H2 에 USERS 를 채워 두고 UserRepositoryImpl 의 조회 쿼리를 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Param("10000")
+    private int users;
+
+    private EmbeddedDatabase database;
+
+    private UserRepositoryImpl userRepository;
+
+    private long maxSeq;
+
+    @Setup
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .addScript("schema.sql")
+                .build();
+        userRepository = new UserRepositoryImpl(new JdbcTemplate(database), new MetricsRegistry(), 500, 500);
+
+        List<User> rows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++)
+            rows.add(new User(new Email("user" + i + "@gmail.com"), "1234"));
+        userRepository.saveAll(rows);
+        maxSeq = users;
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public User findOne() {
+        return userRepository.findOne(randomSeq());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail(new Email("user" + (randomSeq() - 1) + "@gmail.com"));
+    }
+
+    @Benchmark
+    public boolean existsByEmail() {
+        return userRepository.existsByEmail("user" + (randomSeq() - 1) + "@gmail.com");
+    }
+
+    @Benchmark
+    public List<User> findPage() {
+        return userRepository.findAll(randomSeq(), 100);
+    }
+
+    @Benchmark
+    public List<User> findAll() {
+        return userRepository.findAll();
+    }
+
+    private long randomSeq() {
+        return ThreadLocalRandom.current().nextLong(1, maxSeq + 1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.User;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DB 를 거치지 않고 메모리의 ResultSet 으로 userRowMapper 의 행당 매핑 비용만 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRowMapperBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private final RowMapper<User> rowMapper = UserRepositoryImpl.userRowMapper();
+
+    private SimpleResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        resultSet.addColumn("seq", Types.BIGINT, 19, 0);
+        resultSet.addColumn("email", Types.VARCHAR, 50, 0);
+        resultSet.addColumn("passwd", Types.VARCHAR, 80, 0);
+        resultSet.addColumn("login_count", Types.INTEGER, 10, 0);
+        resultSet.addColumn("last_login_at", Types.TIMESTAMP, 26, 0);
+        resultSet.addColumn("create_at", Types.TIMESTAMP, 26, 0);
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < ROWS; i++)
+            resultSet.addRow((long) i, "user" + i + "@gmail.com", "1234", i % 10, i % 2 == 0 ? now : null, now);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRows(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        int rowNum = 0;
+        while (resultSet.next())
+            blackhole.consume(rowMapper.mapRow(resultSet, rowNum++));
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+/**
+ * 같은 수의 사용자를 save 로 한 건씩 넣을 때와 saveAll 로 한 번에 넣을 때를 비교한다.
+ * 한 번 호출이 batch 명을 넣으므로 결과를 batch 로 나누면 사용자 한 명당 시간이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSaveBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int batch;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserRepositoryImpl userRepository;
+
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        userRepository = new UserRepositoryImpl(jdbcTemplate, new MetricsRegistry(), 500, 500);
+    }
+
+    /**
+     * 반복마다 테이블을 비워 인덱스가 커지는 만큼 뒤쪽 반복이 느려지지 않게 한다.
+     */
+    @Setup(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE users");
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public List<User> save() {
+        List<User> saved = new ArrayList<>(batch);
+        for (User user : nextUsers())
+            saved.add(userRepository.save(user));
+        return saved;
+    }
+
+    @Benchmark
+    public List<User> saveAll() {
+        return userRepository.saveAll(nextUsers());
+    }
+
+    private List<User> nextUsers() {
+        List<User> users = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++)
+            users.add(new User(new Email("user" + sequence++ + "@gmail.com"), "1234"));
+        return users;
+    }
+}
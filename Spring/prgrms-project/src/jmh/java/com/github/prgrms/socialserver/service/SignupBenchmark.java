@@ -0,0 +1,65 @@
+package com.github.prgrms.socialserver.service;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.event.UserEventPublisher;
+import com.github.prgrms.socialserver.event.UserEventRing;
+import com.github.prgrms.socialserver.repository.EmailSearchUserRepository;
+import com.github.prgrms.socialserver.repository.UserRepository;
+import com.github.prgrms.socialserver.security.PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 해시 cost 별 가입 처리량과 지연 분포를 잰다.
+ * 요청 스레드 수(@Threads)가 해시 스레드 수보다 많으므로, 지연에는 해시 대기열에서 기다린 시간도 포함된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class SignupBenchmark {
+
+    @Param({"10", "12", "14", "16"})
+    private int cost;
+
+    private LoginCountWriter loginCountWriter;
+
+    private PasswordHasher passwordHasher;
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save"))
+                        return new User.Builder((User) args[0]).seq(1L).build();
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        loginCountWriter = new LoginCountWriter(userRepository, 60_000, 1000);
+        passwordHasher = new PasswordHasher(cost, 0, 1024);
+        userService = new UserServiceImpl(
+                userRepository, loginCountWriter, passwordHasher, new EmailSearchUserRepository(userRepository),
+                new UserEventPublisher(new UserEventRing(1024)), 32, 256);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        userService.shutdown();
+        loginCountWriter.shutdown();
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public User signup() {
+        return userService.save(new Email("tester@gmail.com"), "12345678").join();
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.prgrms.socialserver.service;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.event.UserEventPublisher;
+import com.github.prgrms.socialserver.event.UserEventRing;
+import com.github.prgrms.socialserver.repository.EmailSearchUserRepository;
+import com.github.prgrms.socialserver.repository.UserRepository;
+import com.github.prgrms.socialserver.security.PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 저장은 아무 일도 하지 않는 UserRepository 로 바꿔 UserServiceImpl.save 의 검증과 객체 생성 비용만 잰다.
+ * 해시 비용은 가장 낮은 cost 로 줄인다. cost 별 비용은 SignupBenchmark 에서 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private LoginCountWriter loginCountWriter;
+
+    private PasswordHasher passwordHasher;
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save"))
+                        return new User.Builder((User) args[0]).seq(1L).build();
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        loginCountWriter = new LoginCountWriter(userRepository, 60_000, 1000);
+        passwordHasher = new PasswordHasher(4, 1, 1024);
+        userService = new UserServiceImpl(
+                userRepository, loginCountWriter, passwordHasher, new EmailSearchUserRepository(userRepository),
+                new UserEventPublisher(new UserEventRing(1024)), 32, 256);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        userService.shutdown();
+        loginCountWriter.shutdown();
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public User save() {
+        return userService.save(new Email("tester@gmail.com"), "12345678").join();
+    }
+}
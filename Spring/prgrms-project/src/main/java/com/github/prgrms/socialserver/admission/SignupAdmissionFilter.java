@@ -0,0 +1,178 @@
+package com.github.prgrms.socialserver.admission;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 회원 가입 요청을 검증과 DB 에 닿기 전에 걸러낸다. 같은 해시 대기열을 쓰는 로그인 앞에도 따로 하나를 건다.
+ *
+ * 클라이언트마다 TokenBucket 으로 요청 속도를 제한하고, 전체 동시 처리 수를 CAS 카운터로 제한한다.
+ * 어느 쪽이든 넘치면 락을 잡거나 기다리지 않고 바로 429 를 응답한다.
+ * 버킷은 가득 찰 때까지 걸리는 시간 동안 쓰이지 않으면 만료되므로(새 버킷과 같은 상태) 메모리는 maxClients 로 제한된다.
+ * 비동기로 응답하는 요청은 응답이 끝날 때 동시 처리 수를 돌려준다.
+ */
+public class SignupAdmissionFilter extends OncePerRequestFilter {
+
+    private static final byte[] RATE_LIMITED_BODY =
+            "{\"status\":429,\"error\":\"Too Many Requests\",\"reason\":\"rate-limited\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] OVER_CAPACITY_BODY =
+            "{\"status\":429,\"error\":\"Too Many Requests\",\"reason\":\"over-capacity\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final int maxConcurrency;
+
+    private final String clientKeyHeader;
+
+    private final LoadingCache<String, TokenBucket> buckets;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    private final LongAdder overCapacity = new LongAdder();
+
+    public SignupAdmissionFilter(double permitsPerSecond, int burst, int maxConcurrency, long maxClients, String clientKeyHeader) {
+        checkArgument(permitsPerSecond > 0, "permitsPerSecond must be positive.");
+        checkArgument(burst > 0, "burst must be positive.");
+        checkArgument(maxConcurrency > 0, "maxConcurrency must be positive.");
+        checkArgument(maxClients > 0, "maxClients must be positive.");
+
+        this.maxConcurrency = maxConcurrency;
+        this.clientKeyHeader = StringUtils.trimToNull(clientKeyHeader);
+        this.buckets = CacheBuilder.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(refillDuration(permitsPerSecond, burst))
+                .build(CacheLoader.from(key -> new TokenBucket(permitsPerSecond, burst, System.nanoTime())));
+    }
+
+    private static Duration refillDuration(double permitsPerSecond, int burst) {
+        return Duration.ofNanos((long) Math.ceil(burst * 1e9 / permitsPerSecond)).plusSeconds(1);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = buckets.getUnchecked(clientKeyOf(request)).tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(response, RATE_LIMITED_BODY, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            return;
+        }
+        if (!tryEnter()) {
+            overCapacity.increment();
+            reject(response, OVER_CAPACITY_BODY, 1);
+            return;
+        }
+        admitted.increment();
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ExitListener());
+                async = true;
+            }
+        } finally {
+            if (!async)
+                inFlight.decrementAndGet();
+        }
+    }
+
+    private boolean tryEnter() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrency)
+                return false;
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    private String clientKeyOf(HttpServletRequest request) {
+        if (clientKeyHeader != null) {
+            String forwarded = request.getHeader(clientKeyHeader);
+            if (StringUtils.isNotBlank(forwarded))
+                return StringUtils.substringBefore(forwarded, ",").trim();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, byte[] body, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    public long getOverCapacity() {
+        return overCapacity.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long trackedClients() {
+        return buckets.size();
+    }
+
+    /**
+     * 비동기 응답이 끝나면(정상, 오류, timeout 모두 onComplete 로 끝난다) 동시 처리 수를 돌려준다.
+     */
+    private final class ExitListener implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
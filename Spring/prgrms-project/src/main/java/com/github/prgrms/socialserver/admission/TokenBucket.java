@@ -0,0 +1,52 @@
+package com.github.prgrms.socialserver.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 락 없이 CAS 한 번으로 토큰을 꺼내는 token bucket.
+ *
+ * 남은 토큰 수와 마지막 충전 시각을 따로 두지 않고, GCRA 처럼 "다음 토큰이 예정된 시각" 하나만 AtomicLong 에 둔다.
+ * 토큰을 꺼낼 때마다 그 시각을 interval 만큼 늦추고, 그 시각이 지금보다 (burst - 1) * interval 넘게 앞서 있으면 버킷이 빈 것이다.
+ * 초당 permitsPerSecond 개씩 채워지고 최대 burst 개까지 쌓이는 token bucket 과 같은 결과를 낸다.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        checkArgument(permitsPerSecond > 0, "permitsPerSecond must be positive.");
+        checkArgument(burst > 0, "burst must be positive.");
+
+        this.intervalNanos = Math.max(1, (long) (1e9 / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 토큰을 하나 꺼낸다. 꺼냈으면 0 을, 버킷이 비었으면 다음 토큰이 생길 때까지 남은 nanos 를 반환한다.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long ahead = Math.max(current - nowNanos, 0);
+            if (ahead > toleranceNanos)
+                return ahead - toleranceNanos;
+            if (theoreticalArrival.compareAndSet(current, nowNanos + ahead + intervalNanos))
+                return 0;
+        }
+    }
+
+    /**
+     * 지금 꺼낼 수 있는 토큰 수.
+     */
+    public long available(long nowNanos) {
+        long ahead = Math.max(theoreticalArrival.get() - nowNanos, 0);
+        return Math.max(toleranceNanos + intervalNanos - ahead, 0) / intervalNanos;
+    }
+}
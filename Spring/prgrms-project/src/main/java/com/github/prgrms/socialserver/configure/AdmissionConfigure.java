@@ -0,0 +1,58 @@
+package com.github.prgrms.socialserver.configure;
+
+import com.github.prgrms.socialserver.admission.SignupAdmissionFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * POST /api/users/join(과 /api/users/join/batch) 과 POST /api/users/login 앞에 각각 SignupAdmissionFilter 를 건다.
+ *
+ * 가입과 로그인은 같은 비밀번호 해시 대기열을 쓰므로, 기본값은 해시 대기열 크기를 반씩 나눠 전체 동시 처리 수로 쓴다.
+ * 어느 한쪽이 몰려도 다른 쪽이 PasswordHasherBusyException(503) 을 받지 않게 하려는 것이다.
+ * 클라이언트마다 가입은 초당 5건(최대 10건 연속), 로그인은 초당 10건(최대 20건 연속)이다.
+ * 프록시 뒤에서는 users.admission.client-key-header=X-Forwarded-For 처럼 클라이언트를 구분할 헤더를 지정한다.
+ */
+@Configuration
+public class AdmissionConfigure {
+
+    @Bean
+    public SignupAdmissionFilter signupAdmissionFilter(
+            @Value("${users.admission.permits-per-second:5}") double permitsPerSecond,
+            @Value("${users.admission.burst:10}") int burst,
+            @Value("${users.admission.max-concurrency:#{${users.password.queue-capacity:256} / 2}}") int maxConcurrency,
+            @Value("${users.admission.max-clients:100000}") long maxClients,
+            @Value("${users.admission.client-key-header:}") String clientKeyHeader) {
+        return new SignupAdmissionFilter(permitsPerSecond, burst, maxConcurrency, maxClients, clientKeyHeader);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SignupAdmissionFilter> signupAdmissionFilterRegistration(
+            @Qualifier("signupAdmissionFilter") SignupAdmissionFilter signupAdmissionFilter) {
+        FilterRegistrationBean<SignupAdmissionFilter> registration = new FilterRegistrationBean<>(signupAdmissionFilter);
+        registration.setName("signupAdmissionFilter");
+        registration.addUrlPatterns("/api/users/join", "/api/users/join/*");
+        return registration;
+    }
+
+    @Bean
+    public SignupAdmissionFilter loginAdmissionFilter(
+            @Value("${users.admission.login.permits-per-second:10}") double permitsPerSecond,
+            @Value("${users.admission.login.burst:20}") int burst,
+            @Value("${users.admission.login.max-concurrency:#{${users.password.queue-capacity:256} / 2}}") int maxConcurrency,
+            @Value("${users.admission.max-clients:100000}") long maxClients,
+            @Value("${users.admission.client-key-header:}") String clientKeyHeader) {
+        return new SignupAdmissionFilter(permitsPerSecond, burst, maxConcurrency, maxClients, clientKeyHeader);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SignupAdmissionFilter> loginAdmissionFilterRegistration(
+            @Qualifier("loginAdmissionFilter") SignupAdmissionFilter loginAdmissionFilter) {
+        FilterRegistrationBean<SignupAdmissionFilter> registration = new FilterRegistrationBean<>(loginAdmissionFilter);
+        registration.setName("loginAdmissionFilter");
+        registration.addUrlPatterns("/api/users/login");
+        return registration;
+    }
+}
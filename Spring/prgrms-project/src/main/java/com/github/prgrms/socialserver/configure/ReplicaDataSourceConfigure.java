@@ -0,0 +1,81 @@
+package com.github.prgrms.socialserver.configure;
+
+import com.github.prgrms.socialserver.datasource.ReadYourWritesFilter;
+import com.github.prgrms.socialserver.datasource.ReplicaRoutingDataSource;
+import com.github.prgrms.socialserver.metrics.HikariMetricsPostProcessor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * users.datasource.replica-urls 가 있으면 읽기 전용 트랜잭션을 replica 로 보낸다.
+ *
+ * primary 는 spring.datasource.* 로, replica 는 같은 계정과 풀 설정에 URL 만 바꿔 만든다.
+ * JdbcTemplate 과 트랜잭션 매니저가 쓰는 @Primary DataSource 는 LazyConnectionDataSourceProxy 로 감싼
+ * ReplicaRoutingDataSource 이다.
+ */
+@Configuration
+@ConditionalOnProperty("users.datasource.replica-urls")
+public class ReplicaDataSourceConfigure {
+
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 DataSourceProperties properties,
+                                 HikariMetricsPostProcessor hikariMetricsPostProcessor,
+                                 @Value("${users.datasource.replica-urls}") String[] replicaUrls,
+                                 @Value("${users.datasource.replica-strategy:round-robin}") String strategy,
+                                 @Value("${users.datasource.read-your-writes-millis:0}") long readYourWritesMillis) {
+        List<DataSource> targets = new ArrayList<>(replicaUrls.length);
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls[i].trim())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            hikariMetricsPostProcessor.instrument(replica);
+            replicas.add(replica);
+            targets.add(replica);
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primaryDataSource,
+                targets,
+                ReplicaRoutingDataSource.Strategy.valueOf(strategy.trim().toUpperCase().replace('-', '_')),
+                Duration.ofMillis(readYourWritesMillis));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+
+    @PreDestroy
+    public void closeReplicas() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.prgrms.socialserver.configure;
+
+import com.github.prgrms.socialserver.metrics.HikariMetricsPostProcessor;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import com.github.prgrms.socialserver.repository.ShardedUserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * "sharded" 프로파일에서 users.shards.urls 의 DB 마다 풀을 만들고 ShardedUserRepository 를 userStore 로 등록한다.
+ *
+ * 샤드 풀은 spring.datasource.* 의 계정을 쓰고 URL 만 바꿔 만든다. 샤드 저장소는 트랜잭션 매니저 밖에서
+ * 문장 단위로 커밋한다. users.shards.initialize-schema=true 이면 시작할 때 schema.sql 을 샤드마다 실행한다. (로컬 전용)
+ */
+@Configuration
+@Profile("sharded")
+public class ShardedUserRepositoryConfigure {
+
+    private final List<HikariDataSource> shards = new ArrayList<>();
+
+    @Bean
+    @Qualifier("userStore")
+    public ShardedUserRepository shardedUserRepository(
+            DataSourceProperties properties,
+            HikariMetricsPostProcessor hikariMetricsPostProcessor,
+            MetricsRegistry metricsRegistry,
+            @Value("${users.shards.urls}") String[] shardUrls,
+            @Value("${users.shards.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${users.shards.initialize-schema:false}") boolean initializeSchema,
+            @Value("${users.batch.chunk-size:500}") int batchChunkSize,
+            @Value("${users.stream.fetch-size:500}") int streamFetchSize) {
+        List<DataSource> targets = new ArrayList<>(shardUrls.length);
+        for (int i = 0; i < shardUrls.length; i++) {
+            HikariDataSource shard = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(shardUrls[i].trim())
+                    .build();
+            shard.setPoolName("shard-" + i);
+            shard.setMaximumPoolSize(maximumPoolSize);
+            hikariMetricsPostProcessor.instrument(shard);
+            if (initializeSchema)
+                new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(shard);
+            shards.add(shard);
+            targets.add(shard);
+        }
+        return new ShardedUserRepository(targets, metricsRegistry, batchChunkSize, streamFetchSize);
+    }
+
+    @PreDestroy
+    public void closeShards() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
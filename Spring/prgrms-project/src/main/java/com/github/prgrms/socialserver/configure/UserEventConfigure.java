@@ -0,0 +1,36 @@
+package com.github.prgrms.socialserver.configure;
+
+import com.github.prgrms.socialserver.event.UserEventHandler;
+import com.github.prgrms.socialserver.event.UserEventRing;
+import com.github.prgrms.socialserver.event.WaitStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserEventHandler 빈마다 UserEventRing 의 consumer 를 하나씩 붙이고 링을 시작한다.
+ *
+ * 대기 방식은 users.events.wait-strategy.{빈 이름} 으로 consumer 마다 정하고, 없으면 users.events.wait-strategy 를 쓴다.
+ * (busy-spin, yielding, sleeping, blocking)
+ * 가장 느린 consumer 가 한 바퀴 뒤처지면 발행은 users.events.publish-timeout-millis 만큼 기다린 뒤 이벤트를 버린다.
+ */
+@Configuration
+public class UserEventConfigure {
+
+    @Bean(destroyMethod = "stop")
+    public UserEventRing userEventRing(Map<String, UserEventHandler> handlers,
+                                       Environment environment,
+                                       @Value("${users.events.buffer-size:4096}") int bufferSize,
+                                       @Value("${users.events.wait-strategy:blocking}") String defaultWaitStrategy,
+                                       @Value("${users.events.publish-timeout-millis:100}") long publishTimeoutMillis) {
+        UserEventRing ring = new UserEventRing(bufferSize, publishTimeoutMillis, TimeUnit.MILLISECONDS);
+        handlers.forEach((name, handler) -> ring.addConsumer(name, handler,
+                WaitStrategy.of(environment.getProperty("users.events.wait-strategy." + name, defaultWaitStrategy))));
+        ring.start();
+        return ring;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.prgrms.socialserver.configure;
+
+import com.github.prgrms.socialserver.repository.CachingUserRepository;
+import com.github.prgrms.socialserver.repository.CoalescingUserRepository;
+import com.github.prgrms.socialserver.repository.ConcurrencyLimitedUserRepository;
+import com.github.prgrms.socialserver.repository.EmailIndexUserRepository;
+import com.github.prgrms.socialserver.repository.EmailSearchUserRepository;
+import com.github.prgrms.socialserver.repository.GroupCommitUserRepository;
+import com.github.prgrms.socialserver.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실제 저장소(userStore: 기본은 JDBC, "memory" 프로파일이면 InMemoryUserRepository,
+ * "sharded" 프로파일이면 ShardedUserRepository) 위에 decorator 를 쌓는다.
+ */
+@Configuration
+public class UserRepositoryConfigure {
+
+    @Bean
+    public ConcurrencyLimitedUserRepository concurrencyLimitedUserRepository(
+            @Qualifier("userStore") UserRepository userStore,
+            @Value("${users.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+            @Value("${users.db.acquire-timeout-millis:1000}") long acquireTimeoutMillis) {
+        return new ConcurrencyLimitedUserRepository(userStore, maxConcurrency, acquireTimeoutMillis);
+    }
+
+    @Bean
+    public GroupCommitUserRepository groupCommitUserRepository(
+            ConcurrencyLimitedUserRepository concurrencyLimitedUserRepository,
+            @Value("${users.group-commit.window-micros:500}") long windowMicros,
+            @Value("${users.group-commit.max-batch-size:64}") int maxBatchSize,
+            @Value("${users.group-commit.queue-capacity:1024}") int queueCapacity) {
+        return new GroupCommitUserRepository(concurrencyLimitedUserRepository,
+                TimeUnit.MICROSECONDS.toNanos(windowMicros), maxBatchSize, queueCapacity);
+    }
+
+    @Bean(initMethod = "rebuild")
+    public EmailIndexUserRepository emailIndexUserRepository(
+            GroupCommitUserRepository groupCommitUserRepository,
+            @Value("${users.email-index.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${users.email-index.fpp:0.01}") double fpp) {
+        return new EmailIndexUserRepository(groupCommitUserRepository, expectedInsertions, fpp);
+    }
+
+    @Bean(initMethod = "rebuild")
+    public EmailSearchUserRepository emailSearchUserRepository(EmailIndexUserRepository emailIndexUserRepository) {
+        return new EmailSearchUserRepository(emailIndexUserRepository);
+    }
+
+    @Bean
+    public CoalescingUserRepository coalescingUserRepository(
+            EmailSearchUserRepository emailSearchUserRepository,
+            @Value("${users.coalesce.window-micros:200}") long windowMicros,
+            @Value("${users.coalesce.max-batch-size:100}") int maxBatchSize,
+            @Value("${users.datasource.read-your-writes-millis:0}") long readYourWritesMillis) {
+        return new CoalescingUserRepository(emailSearchUserRepository, TimeUnit.MICROSECONDS.toNanos(windowMicros), maxBatchSize,
+                TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis));
+    }
+
+    @Bean
+    @Primary
+    public CachingUserRepository cachingUserRepository(
+            CoalescingUserRepository coalescingUserRepository,
+            @Value("${users.cache.maximum-size:10000}") long maximumSize,
+            @Value("${users.cache.ttl-seconds:600}") long ttlSeconds) {
+        return new CachingUserRepository(coalescingUserRepository, maximumSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.github.prgrms.socialserver.configure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * server.tomcat.virtual-threads=true 이면 Tomcat 이 요청마다 virtual thread 를 사용한다.
+ * 프로젝트는 Java 11 로 빌드되므로 Executors.newVirtualThreadPerTaskExecutor 는 reflection 으로 찾고,
+ * 실행 중인 JVM 이 지원하지 않으면 기존 스레드 풀을 그대로 쓴다.
+ * DB 동시 접근은 ConcurrencyLimitedUserRepository 가 커넥션 풀 크기로 제한한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.tomcat.virtual-threads", havingValue = "true")
+public class VirtualThreadConfigure {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> {
+            if (executor != null)
+                protocolHandler.setExecutor(executor);
+        };
+    }
+
+    private ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            log.info("Serving requests on virtual threads");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on Java {}, keeping the Tomcat thread pool",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.prgrms.socialserver.controller;
+
+import com.github.prgrms.socialserver.admission.SignupAdmissionFilter;
+import com.github.prgrms.socialserver.event.UserEventRing;
+import com.github.prgrms.socialserver.event.UserEventStats;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import com.github.prgrms.socialserver.repository.CachingUserRepository;
+import com.github.prgrms.socialserver.repository.CoalescingUserRepository;
+import com.github.prgrms.socialserver.repository.ConcurrencyLimitedUserRepository;
+import com.github.prgrms.socialserver.repository.EmailIndexUserRepository;
+import com.github.prgrms.socialserver.repository.GroupCommitUserRepository;
+import com.github.prgrms.socialserver.security.PasswordHasher;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class MetricsController {
+
+    private final CachingUserRepository cachingUserRepository;
+
+    private final CoalescingUserRepository coalescingUserRepository;
+
+    private final EmailIndexUserRepository emailIndexUserRepository;
+
+    private final ConcurrencyLimitedUserRepository concurrencyLimitedUserRepository;
+
+    private final GroupCommitUserRepository groupCommitUserRepository;
+
+    private final PasswordHasher passwordHasher;
+
+    private final SignupAdmissionFilter signupAdmissionFilter;
+
+    private final SignupAdmissionFilter loginAdmissionFilter;
+
+    private final UserEventRing userEventRing;
+
+    private final UserEventStats userEventStats;
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsController(CachingUserRepository cachingUserRepository,
+                             CoalescingUserRepository coalescingUserRepository,
+                             EmailIndexUserRepository emailIndexUserRepository,
+                             ConcurrencyLimitedUserRepository concurrencyLimitedUserRepository,
+                             GroupCommitUserRepository groupCommitUserRepository,
+                             PasswordHasher passwordHasher,
+                             @Qualifier("signupAdmissionFilter") SignupAdmissionFilter signupAdmissionFilter,
+                             @Qualifier("loginAdmissionFilter") SignupAdmissionFilter loginAdmissionFilter,
+                             UserEventRing userEventRing,
+                             UserEventStats userEventStats,
+                             MetricsRegistry metricsRegistry) {
+        this.cachingUserRepository = cachingUserRepository;
+        this.coalescingUserRepository = coalescingUserRepository;
+        this.emailIndexUserRepository = emailIndexUserRepository;
+        this.concurrencyLimitedUserRepository = concurrencyLimitedUserRepository;
+        this.groupCommitUserRepository = groupCommitUserRepository;
+        this.passwordHasher = passwordHasher;
+        this.signupAdmissionFilter = signupAdmissionFilter;
+        this.loginAdmissionFilter = loginAdmissionFilter;
+        this.userEventRing = userEventRing;
+        this.userEventStats = userEventStats;
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @GetMapping("/api/metrics/latency")
+    public Map<String, Object> latency() {
+        return metricsRegistry.snapshot();
+    }
+
+    @GetMapping("/api/metrics/user-cache")
+    public Map<String, Object> userCache() {
+        CacheStats stats = cachingUserRepository.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cachingUserRepository.size());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("hitRate", stats.hitRate());
+        return metrics;
+    }
+
+    @GetMapping("/api/metrics/user-coalescing")
+    public Map<String, Object> userCoalescing() {
+        long lookups = coalescingUserRepository.getLookups();
+        long batches = coalescingUserRepository.getBatches();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("lookups", lookups);
+        metrics.put("batches", batches);
+        metrics.put("lookupsPerBatch", batches == 0 ? 0.0 : (double) lookups / batches);
+        return metrics;
+    }
+
+    @GetMapping("/api/metrics/email-index")
+    public Map<String, Object> emailIndex() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("approximateElementCount", emailIndexUserRepository.approximateElementCount());
+        metrics.put("negatives", emailIndexUserRepository.getNegatives());
+        metrics.put("truePositives", emailIndexUserRepository.getTruePositives());
+        metrics.put("falsePositives", emailIndexUserRepository.getFalsePositives());
+        metrics.put("falsePositiveRate", emailIndexUserRepository.falsePositiveRate());
+        metrics.put("expectedFpp", emailIndexUserRepository.expectedFpp());
+        return metrics;
+    }
+
+    @GetMapping("/api/metrics/db-permits")
+    public Map<String, Object> dbPermits() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("availablePermits", concurrencyLimitedUserRepository.availablePermits());
+        metrics.put("queueLength", concurrencyLimitedUserRepository.queueLength());
+        metrics.put("rejected", concurrencyLimitedUserRepository.getRejected());
+        return metrics;
+    }
+
+    @GetMapping("/api/metrics/user-group-commit")
+    public Map<String, Object> userGroupCommit() {
+        long saves = groupCommitUserRepository.getSaves();
+        long batches = groupCommitUserRepository.getBatches();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("saves", saves);
+        metrics.put("batches", batches);
+        metrics.put("savesPerBatch", batches == 0 ? 0.0 : (double) saves / batches);
+        metrics.put("queueDepth", groupCommitUserRepository.queueDepth());
+        metrics.put("rejected", groupCommitUserRepository.getRejected());
+        return metrics;
+    }
+
+    @GetMapping("/api/metrics/password-hasher")
+    public Map<String, Object> passwordHasher() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("cost", passwordHasher.getCost());
+        metrics.put("active", passwordHasher.activeCount());
+        metrics.put("queueDepth", passwordHasher.queueDepth());
+        metrics.put("completed", passwordHasher.getCompleted());
+        metrics.put("rejected", passwordHasher.getRejected());
+        return metrics;
+    }
+
+    @GetMapping("/api/metrics/signup-admission")
+    public Map<String, Object> signupAdmission() {
+        return admission(signupAdmissionFilter);
+    }
+
+    @GetMapping("/api/metrics/login-admission")
+    public Map<String, Object> loginAdmission() {
+        return admission(loginAdmissionFilter);
+    }
+
+    @GetMapping("/api/metrics/user-events")
+    public Map<String, Object> userEvents() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("bufferSize", userEventRing.getBufferSize());
+        metrics.put("published", userEventRing.cursor() + 1);
+        metrics.put("producerWaits", userEventRing.getProducerWaits());
+        metrics.put("dropped", userEventRing.getDropped());
+        metrics.put("consumerLags", userEventRing.lags());
+        metrics.put("created", userEventStats.getCreated());
+        metrics.put("deleted", userEventStats.getDeleted());
+        return metrics;
+    }
+
+    private static Map<String, Object> admission(SignupAdmissionFilter admissionFilter) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("admitted", admissionFilter.getAdmitted());
+        metrics.put("rateLimited", admissionFilter.getRateLimited());
+        metrics.put("overCapacity", admissionFilter.getOverCapacity());
+        metrics.put("inFlight", admissionFilter.inFlight());
+        metrics.put("trackedClients", admissionFilter.trackedClients());
+        return metrics;
+    }
+}
@@ -1,25 +1,89 @@
 package com.github.prgrms.socialserver.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.SignupResult;
 import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserPage;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.domain.UserSearchPage;
 import com.github.prgrms.socialserver.service.UserService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @RestController
 public class UserController {
 
     private final UserService userService;
 
-    public UserController(UserService userService) {
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter userWriter;
+
+    private final ObjectWriter projectionWriter;
+
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.userWriter = objectMapper.writerFor(User.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.projectionWriter = objectMapper.writerFor(UserProjection.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @GetMapping("/api/users")
-    public List<User> retrieveAllUsers() {
-        return userService.findAll();
+    public ResponseEntity<StreamingResponseBody> retrieveAllUsers() {
+        return this.<User>streamArray(userWriter, userService::streamAll);
+    }
+
+    @GetMapping(value = "/api/users", params = "fields")
+    public ResponseEntity<StreamingResponseBody> retrieveAllUsers(@RequestParam String fields) {
+        Set<UserField> projection = UserField.parse(fields);
+        return this.<UserProjection>streamArray(projectionWriter, consumer -> userService.streamAll(projection, consumer));
+    }
+
+    @GetMapping(value = "/api/users", params = "limit")
+    public UserPage<User> retrieveUsers(@RequestParam(required = false) Long cursor, @RequestParam int limit) {
+        return userService.findAll(cursor, limit);
+    }
+
+    @GetMapping(value = "/api/users", params = {"limit", "fields"})
+    public UserPage<UserProjection> retrieveUsers(@RequestParam(required = false) Long cursor,
+                                                  @RequestParam int limit,
+                                                  @RequestParam String fields) {
+        return userService.findAll(cursor, limit, UserField.parse(fields));
+    }
+
+    @GetMapping(value = "/api/users", params = "seq")
+    public List<User> retrieveUsers(@RequestParam List<Long> seq) {
+        return userService.findAllBySeq(seq);
+    }
+
+    @GetMapping(value = "/api/users", params = {"seq", "fields"})
+    public List<UserProjection> retrieveUsers(@RequestParam List<Long> seq, @RequestParam String fields) {
+        return userService.findAllBySeq(seq, UserField.parse(fields));
+    }
+
+    @GetMapping("/api/users/search")
+    public UserSearchPage searchUsers(@RequestParam(required = false) String prefix,
+                                      @RequestParam(required = false) String domain,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        return userService.search(prefix, domain, cursor, limit);
     }
 
     @GetMapping("/api/users/{seq}")
@@ -27,14 +91,52 @@ public class UserController {
         return userService.findOne(seq);
     }
 
+    @GetMapping(value = "/api/users/{seq}", params = "fields")
+    public UserProjection retrieveUser(@PathVariable Long seq, @RequestParam String fields) {
+        return userService.findOne(seq, UserField.parse(fields));
+    }
+
     @PostMapping("/api/users/join")
-    public User createUser(@Valid @RequestBody SignupRequest signupRequest) {
-        User user = userService.save(new Email(signupRequest.getPrincipal()), signupRequest.getCredentials());
-        return user;
+    public CompletableFuture<User> createUser(@Valid @RequestBody SignupRequest signupRequest) {
+        return userService.save(new Email(signupRequest.getPrincipal()), signupRequest.getCredentials());
+    }
+
+    @PostMapping("/api/users/login")
+    public CompletableFuture<User> login(@RequestBody LoginRequest loginRequest) {
+        return userService.login(new Email(loginRequest.getPrincipal()), loginRequest.getCredentials());
+    }
+
+    @PostMapping("/api/users/join/batch")
+    public List<SignupResult> createUsers(@RequestBody List<SignupRequest> signupRequests) {
+        return userService.saveAll(signupRequests);
     }
 
     @PostMapping("/api/users/delete/{email}")
     public void deleteUser(@PathVariable String email) {
         userService.delete(email);
     }
+
+    /**
+     * source 가 넘겨주는 값을 하나씩 JSON 배열로 흘려보낸다. 목록을 메모리에 모으지 않는다.
+     */
+    private <T> ResponseEntity<StreamingResponseBody> streamArray(ObjectWriter writer, Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                source.accept(value -> write(writer, generator, value));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static void write(ObjectWriter writer, JsonGenerator generator, Object value) {
+        try {
+            writer.writeValue(generator, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.github.prgrms.socialserver.datasource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스레드가 마지막으로 primary 에 쓴 시각. 쓰기 직후의 읽기를 primary 로 보내 replica 지연을 숨기는 데 쓴다.
+ * 요청이 끝나면 ReadYourWritesFilter 가 지우므로, 요청 스레드에서는 한 요청 안에서만 유효하다.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<AtomicLong> LAST_WRITE = ThreadLocal.withInitial(() -> new AtomicLong(Long.MIN_VALUE));
+
+    private ReadYourWrites() {}
+
+    public static void markWrite() {
+        LAST_WRITE.get().set(System.nanoTime());
+    }
+
+    /**
+     * 지금 스레드의 쓰기로 표시하는 Runnable 을 만든다.
+     * 해시 스레드나 group commit 스레드처럼 다른 스레드에서 끝나는 쓰기를 요청 스레드의 쓰기로 남길 때,
+     * 요청 스레드에서 만들어 쓰기를 마친 스레드에서 실행한다.
+     */
+    public static Runnable writeMarker() {
+        AtomicLong lastWrite = LAST_WRITE.get();
+        return () -> lastWrite.set(System.nanoTime());
+    }
+
+    public static boolean isWithin(long windowNanos) {
+        long lastWrite = LAST_WRITE.get().get();
+        return lastWrite != Long.MIN_VALUE && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    public static void clear() {
+        LAST_WRITE.remove();
+    }
+}
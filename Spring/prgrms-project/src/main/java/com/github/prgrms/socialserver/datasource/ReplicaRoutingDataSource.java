@@ -0,0 +1,148 @@
+package com.github.prgrms.socialserver.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 그 밖의 호출은 primary 로 보내는 DataSource.
+ *
+ * 트랜잭션의 readOnly 표시는 커넥션을 얻은 뒤에 설정되므로, 반드시 LazyConnectionDataSourceProxy 로 감싸
+ * 첫 statement 를 실행할 때 커넥션을 고르게 해야 한다.
+ * readYourWritesWindow 가 0 보다 크면, 같은 스레드가 primary 에 쓴 뒤 그 시간 동안은 읽기도 primary 로 보낸다.
+ * 여기서는 트랜잭션 안의 쓰기만 표시하므로, 다른 스레드로 넘겨 끝나는 쓰기는 호출한 쪽이 ReadYourWrites.writeMarker 로 표시한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_BUSY
+    }
+
+    private static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+
+    private final List<CountingDataSource> replicas = new ArrayList<>();
+
+    private final Strategy strategy;
+
+    private final long readYourWritesNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Strategy strategy, Duration readYourWritesWindow) {
+        checkNotNull(primary, "primary must be provided.");
+        checkArgument(!replicas.isEmpty(), "replicas must be provided.");
+        checkNotNull(strategy, "strategy must be provided.");
+        checkArgument(!readYourWritesWindow.isNegative(), "readYourWritesWindow must not be negative.");
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            CountingDataSource replica = new CountingDataSource(replicas.get(i));
+            this.replicaKeys.add(key);
+            this.replicas.add(replica);
+            targets.put(key, replica);
+        }
+        this.strategy = strategy;
+        this.readYourWritesNanos = readYourWritesWindow.toNanos();
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (readYourWritesNanos > 0 && TransactionSynchronizationManager.isActualTransactionActive())
+                ReadYourWrites.markWrite();
+            return PRIMARY;
+        }
+        if (readYourWritesNanos > 0 && ReadYourWrites.isWithin(readYourWritesNanos))
+            return PRIMARY;
+        return replicaKeys.get(nextReplica());
+    }
+
+    /**
+     * replica 별로 지금 빌려 간 커넥션 수.
+     */
+    public Map<String, Integer> activeConnections() {
+        Map<String, Integer> active = new HashMap<>();
+        for (int i = 0; i < replicas.size(); i++)
+            active.put(replicaKeys.get(i), replicas.get(i).active.get());
+        return active;
+    }
+
+    private int nextReplica() {
+        if (strategy == Strategy.ROUND_ROBIN)
+            return Math.floorMod(next.getAndIncrement(), replicas.size());
+
+        // 동률이면 round-robin 위치부터 찾아 한 replica 에 몰리지 않게 한다.
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        int best = start;
+        for (int i = 1; i < replicas.size(); i++) {
+            int candidate = (start + i) % replicas.size();
+            if (replicas.get(candidate).active.get() < replicas.get(best).active.get())
+                best = candidate;
+        }
+        return best;
+    }
+
+    /**
+     * 빌려 간 커넥션 수를 센다. 커넥션을 닫으면(풀에 반납하면) 줄어든다.
+     */
+    private static class CountingDataSource extends AbstractDataSource {
+
+        private final DataSource target;
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private CountingDataSource(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counted(target.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counted(target.getConnection(username, password));
+        }
+
+        private Connection counted(Connection connection) {
+            active.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true))
+                            active.decrementAndGet();
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
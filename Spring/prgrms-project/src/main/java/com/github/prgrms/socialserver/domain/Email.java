@@ -1,44 +1,77 @@
 package com.github.prgrms.socialserver.domain;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
-import java.util.Objects;
-
 import static com.google.common.base.Preconditions.checkArgument;
-import static java.util.regex.Pattern.matches;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 public class Email {
+
+    private static final Interner<String> DOMAINS = Interners.newWeakInterner();
+
     private final String address;
 
+    private final int at;
+
+    private final String domain;
+
     public Email(String address) {
         checkArgument(isNotEmpty(address), "address must be provided.");
         checkArgument(
                 address.length() >= 4 && address.length() <= 50,
                 "address length must be between 4 and 50 characters."
         );
-        checkArgument(checkAddress(address), "Invalid email address: " + address);
+        int at = indexOfAt(address);
+        checkArgument(at > 0, "Invalid email address: %s", address);
 
         this.address = address;
+        this.at = at;
+        this.domain = DOMAINS.intern(address.substring(at + 1));
+    }
+
+    /**
+     * [\w~\-.+]+@[\w~\-]+(\.[\w~\-]+)+ 와 같은 규칙을 한 번의 순회로 검사한다.
+     * 올바른 주소이면 '@' 의 위치를, 아니면 -1 을 반환한다.
+     */
+    private static int indexOfAt(String address) {
+        int at = -1;
+        int labelLength = 0;
+        int dots = 0;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (at < 0) {
+                if (c == '@')
+                    at = i;
+                else if (!isWordChar(c) && c != '.' && c != '+')
+                    return -1;
+            } else if (c == '.') {
+                if (labelLength == 0)
+                    return -1;
+                labelLength = 0;
+                dots++;
+            } else if (isWordChar(c)) {
+                labelLength++;
+            } else {
+                return -1;
+            }
+        }
+        return at > 0 && dots > 0 && labelLength > 0 ? at : -1;
     }
 
-    private static boolean checkAddress(String address) {
-        return matches("[\\w~\\-.+]+@[\\w~\\-]+(\\.[\\w~\\-]+)+", address);
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '~' || c == '-';
     }
 
     public String getName() {
-        String[] tokens = address.split("@");
-        if (tokens.length == 2)
-            return tokens[0];
-        return null;
+        return address.substring(0, at);
     }
 
     public String getDomain() {
-        String[] tokens = address.split("@");
-        if (tokens.length == 2)
-            return tokens[1];
-        return null;
+        return domain;
     }
 
     public String getAddress() {
@@ -50,12 +83,12 @@ public class Email {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Email email = (Email) o;
-        return Objects.equals(address, email.address);
+        return address.equals(email.address);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(address);
+        return address.hashCode();
     }
 
     @Override
@@ -0,0 +1,45 @@
+package com.github.prgrms.socialserver.domain;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.time.LocalDateTime;
+
+/**
+ * 아직 DB 에 반영되지 않은 사용자별 로그인 횟수 증가분과 마지막 로그인 시각.
+ */
+public class LoginCount {
+
+    private final long seq;
+
+    private final int count;
+
+    private final LocalDateTime lastLoginAt;
+
+    public LoginCount(long seq, int count, LocalDateTime lastLoginAt) {
+        this.seq = seq;
+        this.count = count;
+        this.lastLoginAt = lastLoginAt;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public LocalDateTime getLastLoginAt() {
+        return lastLoginAt;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("seq", seq)
+                .append("count", count)
+                .append("lastLoginAt", lastLoginAt)
+                .toString();
+    }
+}
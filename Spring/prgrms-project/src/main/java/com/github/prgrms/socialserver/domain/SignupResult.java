@@ -0,0 +1,60 @@
+package com.github.prgrms.socialserver.domain;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+public class SignupResult {
+
+    private final int index;
+
+    private final String principal;
+
+    private final Long seq;
+
+    private final String message;
+
+    private SignupResult(int index, String principal, Long seq, String message) {
+        this.index = index;
+        this.principal = principal;
+        this.seq = seq;
+        this.message = message;
+    }
+
+    public static SignupResult success(int index, String principal, Long seq) {
+        return new SignupResult(index, principal, seq, null);
+    }
+
+    public static SignupResult failure(int index, String principal, String message) {
+        return new SignupResult(index, principal, null, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public boolean isSuccess() {
+        return seq != null;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("index", index)
+                .append("principal", principal)
+                .append("seq", seq)
+                .append("message", message)
+                .toString();
+    }
+}
@@ -26,7 +26,7 @@ public class User {
     private final LocalDateTime create_at;
 
     public User(Email email, String password) {
-        this(null, email, password, 0, null, null);
+        this(null, email, password, 0, null, LocalDateTime.now());
     }
 
     public User(Long seq, Email email, String passwd, int login_count, LocalDateTime last_login_at, LocalDateTime create_at) {
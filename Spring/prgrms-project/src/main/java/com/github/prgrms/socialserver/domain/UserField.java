@@ -0,0 +1,52 @@
+package com.github.prgrms.socialserver.domain;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * ?fields= 로 요청할 수 있는 사용자 필드. 이름은 USERS 컬럼명이자 JSON 속성명이다.
+ * passwd 는 목록에 없으므로 projection 으로 읽을 수 없다.
+ */
+public enum UserField {
+
+    SEQ("seq"),
+    EMAIL("email"),
+    LOGIN_COUNT("login_count"),
+    LAST_LOGIN_AT("last_login_at"),
+    CREATE_AT("create_at");
+
+    private final String column;
+
+    UserField(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * "seq,email" 같은 쉼표 구분 목록을 읽는다. 모르는 필드가 있으면 IllegalArgumentException.
+     */
+    public static Set<UserField> parse(String fields) {
+        checkArgument(isNotBlank(fields), "fields must be provided.");
+
+        EnumSet<UserField> parsed = EnumSet.noneOf(UserField.class);
+        for (String name : fields.split(",")) {
+            parsed.add(of(name.trim()));
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    public static UserField of(String column) {
+        for (UserField field : values()) {
+            if (field.column.equalsIgnoreCase(column))
+                return field;
+        }
+        throw new IllegalArgumentException("Unknown user field: " + column);
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.prgrms.socialserver.domain;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.util.List;
+
+/**
+ * keyset pagination 결과. T 는 User 또는 UserProjection 이다.
+ */
+public class UserPage<T> {
+
+    private final List<T> users;
+
+    private final Long nextCursor;
+
+    public UserPage(List<T> users, Long nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getUsers() {
+        return users;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("users", users.size())
+                .append("nextCursor", nextCursor)
+                .toString();
+    }
+}
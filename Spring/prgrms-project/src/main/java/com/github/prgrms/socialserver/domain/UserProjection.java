@@ -0,0 +1,118 @@
+package com.github.prgrms.socialserver.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * ?fields= 로 요청한 필드만 담는 사용자 조회 결과. 요청한 필드만 JSON 으로 쓴다.
+ * seq 는 페이지 cursor 계산을 위해 항상 채우지만, 요청하지 않았다면 JSON 에는 쓰지 않는다.
+ */
+@JsonSerialize(using = UserProjection.Serializer.class)
+public class UserProjection {
+
+    private final Set<UserField> fields;
+
+    private final long seq;
+
+    private final Email email;
+
+    private final int loginCount;
+
+    private final LocalDateTime lastLoginAt;
+
+    private final LocalDateTime createAt;
+
+    public UserProjection(Set<UserField> fields, long seq, Email email, int loginCount,
+                          LocalDateTime lastLoginAt, LocalDateTime createAt) {
+        this.fields = fields;
+        this.seq = seq;
+        this.email = email;
+        this.loginCount = loginCount;
+        this.lastLoginAt = lastLoginAt;
+        this.createAt = createAt;
+    }
+
+    public static UserProjection of(User user, Set<UserField> fields) {
+        return new UserProjection(fields, user.getSeq(), user.getEmail(), user.getLogin_count(),
+                user.getLast_login_at().orElse(null), user.getCreate_at());
+    }
+
+    public Set<UserField> getFields() {
+        return fields;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public Email getEmail() {
+        return email;
+    }
+
+    public int getLoginCount() {
+        return loginCount;
+    }
+
+    public LocalDateTime getLastLoginAt() {
+        return lastLoginAt;
+    }
+
+    public LocalDateTime getCreateAt() {
+        return createAt;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("fields", fields)
+                .append("seq", seq)
+                .append("email", email)
+                .append("loginCount", loginCount)
+                .append("lastLoginAt", lastLoginAt)
+                .append("createAt", createAt)
+                .toString();
+    }
+
+    /**
+     * User 의 JSON 과 같은 속성명과 값 형식으로, 요청한 필드만 쓴다.
+     */
+    public static class Serializer extends StdSerializer<UserProjection> {
+
+        public Serializer() {
+            super(UserProjection.class);
+        }
+
+        @Override
+        public void serialize(UserProjection projection, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            for (UserField field : projection.fields) {
+                switch (field) {
+                    case SEQ:
+                        gen.writeNumberField(field.getColumn(), projection.seq);
+                        break;
+                    case EMAIL:
+                        provider.defaultSerializeField(field.getColumn(), projection.email, gen);
+                        break;
+                    case LOGIN_COUNT:
+                        gen.writeNumberField(field.getColumn(), projection.loginCount);
+                        break;
+                    case LAST_LOGIN_AT:
+                        provider.defaultSerializeField(field.getColumn(), projection.lastLoginAt, gen);
+                        break;
+                    case CREATE_AT:
+                        provider.defaultSerializeField(field.getColumn(), projection.createAt, gen);
+                        break;
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
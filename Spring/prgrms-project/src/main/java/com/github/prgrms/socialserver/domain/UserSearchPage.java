@@ -0,0 +1,41 @@
+package com.github.prgrms.socialserver.domain;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import java.util.List;
+
+/**
+ * 이메일 검색 결과. nextCursor 는 마지막 결과의 색인 키이며 다음 요청의 cursor 로 그대로 넘긴다.
+ */
+public class UserSearchPage {
+
+    private final List<UserProjection> users;
+
+    private final String nextCursor;
+
+    public UserSearchPage(List<UserProjection> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserProjection> getUsers() {
+        return users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("users", users.size())
+                .append("nextCursor", nextCursor)
+                .toString();
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.prgrms.socialserver.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 앞뒤를 캐시 라인 크기만큼 채운 long 카운터.
+ * producer 커서와 consumer 들의 sequence 는 서로 다른 스레드가 계속 쓰므로 같은 캐시 라인에 놓이지 않게 한다.
+ * 필드 배치를 JVM 이 바꾸지 못하도록 패딩을 상속 계층으로 나눈다.
+ */
+public final class Sequence extends SequenceValue {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    protected long p9, p10, p11, p12, p13, p14, p15;
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    public void set(long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    public boolean compareAndSet(long expected, long value) {
+        return VALUE.compareAndSet(this, expected, value);
+    }
+
+    public long incrementAndGet() {
+        return (long) VALUE.getAndAdd(this, 1L) + 1;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+abstract class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
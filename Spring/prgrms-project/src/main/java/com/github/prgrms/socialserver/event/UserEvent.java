@@ -0,0 +1,58 @@
+package com.github.prgrms.socialserver.event;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * UserEventRing 의 슬롯. 링을 만들 때 한 번만 생성되고 발행할 때마다 값만 덮어쓴다.
+ * 핸들러는 onEvent 안에서만 읽어야 하며, 필요한 값은 복사해 둔다.
+ */
+public final class UserEvent {
+
+    private UserEventType type;
+
+    private long seq;
+
+    private String email;
+
+    private long timestamp;
+
+    void set(UserEventType type, long seq, String email, long timestamp) {
+        this.type = type;
+        this.seq = seq;
+        this.email = email;
+        this.timestamp = timestamp;
+    }
+
+    public UserEventType getType() {
+        return type;
+    }
+
+    /**
+     * 알 수 없으면(이메일로 삭제한 경우) 0 이다.
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * 발행 시각. (epoch millis)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("type", type)
+                .append("seq", seq)
+                .append("email", email)
+                .append("timestamp", timestamp)
+                .toString();
+    }
+}
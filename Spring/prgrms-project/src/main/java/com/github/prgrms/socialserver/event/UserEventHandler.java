@@ -0,0 +1,11 @@
+package com.github.prgrms.socialserver.event;
+
+/**
+ * UserEventRing 을 자기 속도로 읽는 consumer. 빈으로 등록하면 UserEventConfigure 가 전용 스레드를 붙인다.
+ * endOfBatch 는 이번에 한꺼번에 읽은 이벤트 중 마지막인지를 알려 준다. (묶어서 flush 할 때 쓴다)
+ */
+@FunctionalInterface
+public interface UserEventHandler {
+
+    void onEvent(UserEvent event, long sequence, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,41 @@
+package com.github.prgrms.socialserver.event;
+
+import com.github.prgrms.socialserver.domain.User;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 서비스가 사용자 변경을 UserEventRing 에 발행한다.
+ * 트랜잭션 안에서 호출되면 커밋된 뒤에 발행하고(롤백되면 버린다), 밖이면 저장소가 이미 커밋했으므로 바로 발행한다.
+ */
+@Component
+public class UserEventPublisher {
+
+    private final UserEventRing userEventRing;
+
+    public UserEventPublisher(UserEventRing userEventRing) {
+        this.userEventRing = userEventRing;
+    }
+
+    public void created(User user) {
+        publishAfterCommit(UserEventType.CREATED, user.getSeq(), user.getEmail().getAddress());
+    }
+
+    public void deleted(String email) {
+        publishAfterCommit(UserEventType.DELETED, 0, email);
+    }
+
+    private void publishAfterCommit(UserEventType type, long seq, String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    userEventRing.publish(type, seq, email, System.currentTimeMillis());
+                }
+            });
+            return;
+        }
+        userEventRing.publish(type, seq, email, System.currentTimeMillis());
+    }
+}
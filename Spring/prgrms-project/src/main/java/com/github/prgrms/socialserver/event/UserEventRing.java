@@ -0,0 +1,295 @@
+package com.github.prgrms.socialserver.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * 미리 만든 UserEvent 슬롯을 돌려 쓰는 ring buffer 와, consumer 마다 하나씩 붙는 처리 스레드.
+ *
+ * 발행하는 요청 스레드는 자리가 있을 때만 커서를 CAS 로 하나 올려 슬롯을 차지하므로 슬롯마다 쓰는 스레드는 하나뿐이다.
+ * 값을 채운 뒤 슬롯의 회차(sequence / bufferSize)를 기록하면 consumer 가 그 슬롯을 읽는다.
+ * 발행 경로는 객체를 만들지 않는다. 가장 느린 consumer 가 한 바퀴 뒤처지면 producer 는 자리가 날 때까지 publishTimeout 만큼만
+ * 기다리고, 그래도 자리가 없거나 링이 멈춰 있으면 이벤트를 버리고 센다. 멈춘 consumer 가 요청 스레드를 묶어 두지 않게 하려는 것이다.
+ * consumer 는 각자 sequence 와 WaitStrategy 를 가지고 자기 속도로 읽는다.
+ */
+public class UserEventRing {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final int bufferSize;
+
+    private final int mask;
+
+    private final int shift;
+
+    private final UserEvent[] entries;
+
+    private final AtomicIntegerArray published;
+
+    private final Sequence cursor = new Sequence(-1);
+
+    private final Sequence gatingCache = new Sequence(-1);
+
+    private final List<Processor> processors = new ArrayList<>();
+
+    private final long publishTimeoutNanos;
+
+    private final AtomicLong producerWaits = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    // start 에서 한 번 바꾸고, producer 가 lock 없이 읽으므로 volatile 로 내보낸다.
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    private volatile WaitStrategy[] waitStrategies = new WaitStrategy[0];
+
+    private volatile boolean started;
+
+    public UserEventRing(int bufferSize) {
+        this(bufferSize, 100, TimeUnit.MILLISECONDS);
+    }
+
+    public UserEventRing(int bufferSize, long publishTimeout, TimeUnit unit) {
+        checkArgument(bufferSize > 0 && Integer.bitCount(bufferSize) == 1, "bufferSize must be a power of 2.");
+        checkArgument(publishTimeout >= 0, "publishTimeout must not be negative.");
+
+        this.bufferSize = bufferSize;
+        this.publishTimeoutNanos = unit.toNanos(publishTimeout);
+        this.mask = bufferSize - 1;
+        this.shift = Integer.numberOfTrailingZeros(bufferSize);
+        this.entries = new UserEvent[bufferSize];
+        this.published = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = new UserEvent();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * start 전에만 consumer 를 붙일 수 있다.
+     */
+    public synchronized void addConsumer(String name, UserEventHandler handler, WaitStrategy waitStrategy) {
+        checkState(!started, "Consumers must be added before start.");
+        processors.add(new Processor(name, handler, waitStrategy));
+    }
+
+    public synchronized void start() {
+        checkState(!started, "Already started.");
+
+        Sequence[] sequences = new Sequence[processors.size()];
+        WaitStrategy[] strategies = new WaitStrategy[processors.size()];
+        for (int i = 0; i < processors.size(); i++) {
+            // start 전에 발행된 이벤트는 읽을 consumer 가 없었으므로 건너뛴다.
+            processors.get(i).sequence.set(cursor.get());
+            sequences[i] = processors.get(i).sequence;
+            strategies[i] = processors.get(i).waitStrategy;
+        }
+        gatingSequences = sequences;
+        waitStrategies = strategies;
+        started = true;
+        for (Processor processor : processors)
+            processor.thread.start();
+    }
+
+    /**
+     * consumer 가 발행된 이벤트를 모두 읽을 때까지 최대 timeout 만큼 기다린 뒤 처리 스레드를 멈춘다.
+     */
+    public synchronized void stop(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!started)
+            return;
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (minimumSequence() < cursor.get() && System.nanoTime() < deadline)
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+
+        for (Processor processor : processors)
+            processor.running = false;
+        for (WaitStrategy waitStrategy : waitStrategies)
+            waitStrategy.signalAllWhenBlocking();
+        for (Processor processor : processors) {
+            processor.thread.interrupt();
+            processor.thread.join(unit.toMillis(timeout) + 1);
+        }
+        started = false;
+    }
+
+    public void stop() throws InterruptedException {
+        stop(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 슬롯 하나를 차지해 값을 채우고 발행한다. 발행한 sequence 를 반환하고, 자리가 없어 버렸으면 -1 을 반환한다.
+     */
+    public long publish(UserEventType type, long seq, String email, long timestamp) {
+        long sequence = claim();
+        if (sequence < 0)
+            return -1;
+
+        int index = (int) (sequence & mask);
+        entries[index].set(type, seq, email, timestamp);
+        published.lazySet(index, (int) (sequence >>> shift));
+
+        for (WaitStrategy waitStrategy : waitStrategies)
+            waitStrategy.signalAllWhenBlocking();
+        return sequence;
+    }
+
+    /**
+     * 다음 슬롯에 자리가 있으면 커서를 올려 그 sequence 를 차지한다.
+     * 자리가 날 때까지 publishTimeout 만큼 기다리되, 링이 멈춰 있으면 기다리지 않는다. 끝내 자리가 없으면 -1.
+     */
+    private long claim() {
+        boolean waited = false;
+        long deadline = 0;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - bufferSize;
+            if (wrapPoint > gatingCache.get()) {
+                long minimum = minimumSequence();
+                gatingCache.set(minimum);
+                if (wrapPoint > minimum) {
+                    if (!waited) {
+                        producerWaits.incrementAndGet();
+                        waited = true;
+                        deadline = System.nanoTime() + publishTimeoutNanos;
+                    }
+                    if (!started || System.nanoTime() - deadline >= 0) {
+                        dropped.incrementAndGet();
+                        return -1;
+                    }
+                    LockSupport.parkNanos(1);
+                    continue;
+                }
+            }
+            if (cursor.compareAndSet(current, next))
+                return next;
+        }
+    }
+
+    private long minimumSequence() {
+        long minimum = cursor.get();
+        for (Sequence sequence : gatingSequences)
+            minimum = Math.min(minimum, sequence.get());
+        return minimum;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) (sequence & mask)) == (int) (sequence >>> shift);
+    }
+
+    /**
+     * lowerBound 부터 연속으로 발행이 끝난 가장 큰 sequence. 아직 채우는 중인 슬롯 앞에서 멈춘다.
+     */
+    private long highestPublished(long lowerBound, long available) {
+        for (long sequence = lowerBound; sequence <= available; sequence++) {
+            if (!isPublished(sequence))
+                return sequence - 1;
+        }
+        return available;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long cursor() {
+        return cursor.get();
+    }
+
+    /**
+     * 자리가 없어 producer 가 기다린 횟수.
+     */
+    public long getProducerWaits() {
+        return producerWaits.get();
+    }
+
+    /**
+     * 자리가 나지 않거나 링이 멈춰 있어 버린 이벤트 수.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * consumer 이름별로 아직 읽지 않은 이벤트 수.
+     */
+    public synchronized Map<String, Long> lags() {
+        long current = cursor.get();
+        Map<String, Long> lags = new LinkedHashMap<>();
+        for (Processor processor : processors)
+            lags.put(processor.name, current - processor.sequence.get());
+        return lags;
+    }
+
+    private final class Processor implements Runnable {
+
+        private final String name;
+
+        private final UserEventHandler handler;
+
+        private final WaitStrategy waitStrategy;
+
+        private final Sequence sequence = new Sequence(-1);
+
+        private final BooleanSupplier isRunning = () -> this.running;
+
+        private final Thread thread;
+
+        private volatile boolean running = true;
+
+        private Processor(String name, UserEventHandler handler, WaitStrategy waitStrategy) {
+            this.name = name;
+            this.handler = handler;
+            this.waitStrategy = waitStrategy;
+            this.thread = new Thread(this, "user-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            while (running) {
+                long available;
+                try {
+                    available = waitStrategy.waitFor(next, cursor, isRunning);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                long highest = highestPublished(next, available);
+                if (highest < next) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                for (long current = next; current <= highest; current++)
+                    handle(entries[(int) (current & mask)], current, current == highest);
+                sequence.set(highest);
+                next = highest + 1;
+            }
+        }
+
+        /**
+         * 핸들러가 실패해도 링이 멈추지 않도록 로그만 남기고 다음 이벤트로 넘어간다.
+         */
+        private void handle(UserEvent event, long current, boolean endOfBatch) {
+            try {
+                handler.onEvent(event, current, endOfBatch);
+            } catch (Exception e) {
+                log.warn("User event consumer {} failed on {}: {}", name, event, e.getMessage(), e);
+            }
+        }
+    }
+}
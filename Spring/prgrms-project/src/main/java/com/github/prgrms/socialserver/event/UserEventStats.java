@@ -0,0 +1,43 @@
+package com.github.prgrms.socialserver.event;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 가입과 탈퇴 수를 세는 consumer.
+ */
+@Component
+public class UserEventStats implements UserEventHandler {
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder deleted = new LongAdder();
+
+    private volatile long lastTimestamp;
+
+    @Override
+    public void onEvent(UserEvent event, long sequence, boolean endOfBatch) {
+        if (event.getType() == UserEventType.CREATED)
+            created.increment();
+        else
+            deleted.increment();
+        if (endOfBatch)
+            lastTimestamp = event.getTimestamp();
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getDeleted() {
+        return deleted.sum();
+    }
+
+    /**
+     * 마지막으로 읽은 이벤트의 발행 시각. (epoch millis)
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+}
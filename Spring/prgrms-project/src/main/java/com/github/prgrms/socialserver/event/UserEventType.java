@@ -0,0 +1,6 @@
+package com.github.prgrms.socialserver.event;
+
+public enum UserEventType {
+    CREATED,
+    DELETED
+}
@@ -0,0 +1,146 @@
+package com.github.prgrms.socialserver.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * consumer 가 다음 이벤트를 기다리는 방법. 지연 시간과 CPU 사용량을 맞바꾼다.
+ *
+ * busy-spin: 가장 빠르지만 consumer 마다 코어 하나를 계속 쓴다.
+ * yielding: 잠깐 spin 한 뒤 Thread.yield 한다.
+ * sleeping: spin, yield 뒤에 parkNanos 로 잔다. 지연은 늘지만 CPU 를 거의 쓰지 않는다.
+ * blocking: Condition 에서 잠들고 producer 가 깨운다. 기다리는 consumer 가 있을 때만 락을 잡는다.
+ */
+public interface WaitStrategy {
+
+    /**
+     * cursor 가 sequence 에 닿을 때까지 기다렸다가 cursor 값을 반환한다.
+     * running 이 false 가 되면 sequence 보다 작은 값을 반환할 수 있다.
+     */
+    long waitFor(long sequence, Sequence cursor, BooleanSupplier running) throws InterruptedException;
+
+    /**
+     * producer 가 발행할 때마다 호출한다. 잠든 consumer 가 있는 전략만 깨운다.
+     */
+    default void signalAllWhenBlocking() {
+    }
+
+    static WaitStrategy of(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "busy-spin":
+                return new BusySpin();
+            case "yielding":
+                return new Yielding();
+            case "sleeping":
+                return new Sleeping();
+            case "blocking":
+                return new Blocking();
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        }
+    }
+
+    final class BusySpin implements WaitStrategy {
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, BooleanSupplier running) {
+            long available;
+            while ((available = cursor.get()) < sequence && running.getAsBoolean())
+                Thread.onSpinWait();
+            return available;
+        }
+    }
+
+    final class Yielding implements WaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, BooleanSupplier running) {
+            int counter = SPIN_TRIES;
+            long available;
+            while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+    }
+
+    final class Sleeping implements WaitStrategy {
+
+        private static final int RETRIES = 200;
+
+        private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, BooleanSupplier running) {
+            int counter = RETRIES;
+            long available;
+            while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+                if (counter > RETRIES / 2) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else if (counter > 0) {
+                    counter--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            return available;
+        }
+    }
+
+    final class Blocking implements WaitStrategy {
+
+        private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition published = lock.newCondition();
+
+        private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, BooleanSupplier running) throws InterruptedException {
+            long available = cursor.get();
+            if (available >= sequence)
+                return available;
+
+            lock.lock();
+            try {
+                while ((available = cursor.get()) < sequence && running.getAsBoolean()) {
+                    signalNeeded.set(true);
+                    if (cursor.get() >= sequence)
+                        break;
+                    // 깨우는 신호를 놓쳐도 오래 잠들지 않도록 상한을 둔다.
+                    published.awaitNanos(MAX_WAIT_NANOS);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return cursor.get();
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            if (signalNeeded.getAndSet(false)) {
+                lock.lock();
+                try {
+                    published.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
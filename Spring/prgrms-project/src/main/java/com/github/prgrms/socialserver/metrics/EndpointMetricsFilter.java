@@ -0,0 +1,40 @@
+package com.github.prgrms.socialserver.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청을 매칭된 URL 패턴별로 묶어 지연 시간을 기록한다.
+ * 비동기로 응답하는 요청은 요청 스레드가 반환될 때까지만 잰다.
+ */
+@Component
+public class EndpointMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED = "UNMATCHED";
+
+    private final MetricsRegistry metricsRegistry;
+
+    public EndpointMetricsFilter(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metricsRegistry.endpoint(request.getMethod(), pattern != null ? (String) pattern : UNMATCHED)
+                    .record(System.nanoTime() - start);
+        }
+    }
+}
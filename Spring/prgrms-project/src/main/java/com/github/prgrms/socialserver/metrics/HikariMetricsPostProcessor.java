@@ -0,0 +1,42 @@
+package com.github.prgrms.socialserver.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * HikariCP 가 커넥션을 빌려주기까지 기다린 시간을 MetricsRegistry 에 기록한다.
+ */
+@Component
+public class HikariMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MetricsRegistry> metricsRegistry;
+
+    public HikariMetricsPostProcessor(ObjectProvider<MetricsRegistry> metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource)
+            instrument((HikariDataSource) bean);
+        return bean;
+    }
+
+    /**
+     * bean 으로 등록되지 않은 풀(replica 등)도 같은 방식으로 계측할 수 있게 공개한다.
+     */
+    public void instrument(HikariDataSource dataSource) {
+        dataSource.setMetricsTrackerFactory((poolName, poolStats) -> {
+            LatencyHistogram connectionWait = metricsRegistry.getObject().connectionWait();
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    connectionWait.record(elapsedAcquiredNanos);
+                }
+            };
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.prgrms.socialserver.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * endpoint, SQL, 커넥션 대기 시간 히스토그램을 모아 두는 곳.
+ * 이름으로 찾은 히스토그램은 처음 한 번만 만들어지고, 이후 조회는 할당 없이 기존 객체를 돌려준다.
+ */
+@Component
+public class MetricsRegistry {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, LatencyHistogram>> endpoints = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, QueryMetrics> queries = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram connectionWait = new LatencyHistogram();
+
+    public LatencyHistogram endpoint(String method, String pattern) {
+        return endpoints.computeIfAbsent(method, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pattern, key -> new LatencyHistogram());
+    }
+
+    public QueryMetrics query(String name) {
+        return queries.computeIfAbsent(name, key -> new QueryMetrics());
+    }
+
+    public LatencyHistogram connectionWait() {
+        return connectionWait;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> endpointSnapshots = new TreeMap<>();
+        endpoints.forEach((method, patterns) ->
+                patterns.forEach((pattern, histogram) -> endpointSnapshots.put(method + " " + pattern, histogram.snapshot())));
+
+        Map<String, Object> querySnapshots = new TreeMap<>();
+        queries.forEach((name, metrics) -> querySnapshots.put(name, metrics.snapshot()));
+
+        Map<String, Object> snapshot = new TreeMap<>();
+        snapshot.put("endpoints", endpointSnapshots);
+        snapshot.put("queries", querySnapshots);
+        snapshot.put("connectionWait", connectionWait.snapshot());
+        return snapshot;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.prgrms.socialserver.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 한 종류의 지연 시간과 읽거나 변경한 행 수.
+ */
+public class QueryMetrics {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long nanos, long rows) {
+        latency.record(nanos);
+        this.rows.add(rows);
+    }
+
+    public void recordError(long nanos) {
+        latency.record(nanos);
+        errors.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = latency.snapshot();
+        snapshot.put("rows", rows.sum());
+        snapshot.put("errors", errors.sum());
+        return snapshot;
+    }
+}
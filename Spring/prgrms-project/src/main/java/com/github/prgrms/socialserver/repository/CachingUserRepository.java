@@ -0,0 +1,180 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * findOne 결과를 seq 기준으로 캐시하는 read-through decorator.
+ * 크기(maximumSize)와 TTL(expireAfterWrite) 로 evict 된다.
+ *
+ * 캐시 miss 시 DB 조회와 캐시 적재는 read lock 안에서, delete 의 무효화는 write lock 안에서 수행한다.
+ * 따라서 delete 가 반환된 뒤에는 삭제 전에 시작된 조회가 삭제된 사용자를 다시 캐시에 넣을 수 없다.
+ * delete 는 드물기 때문에 이메일로 찾는 무효화는 캐시 전체를 훑는다.
+ *
+ * User 는 로그인 때 afterLoginSuccess 로 바뀌므로, 캐시에는 복사본을 넣고 꺼낼 때도 복사본을 돌려준다.
+ * 로그인 횟수를 DB 에 반영하면 그 사용자들은 캐시에서 지운다.
+ */
+public class CachingUserRepository extends ForwardingUserRepository {
+
+    private final Cache<Long, User> cache;
+
+    private final ReadWriteLock invalidationLock = new ReentrantReadWriteLock();
+
+    public CachingUserRepository(UserRepository delegate, long maximumSize, Duration expireAfterWrite) {
+        super(delegate);
+        checkArgument(maximumSize > 0, "maximumSize must be positive.");
+        checkArgument(!expireAfterWrite.isNegative() && !expireAfterWrite.isZero(), "expireAfterWrite must be positive.");
+
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public User findOne(Long seq) throws DataAccessException {
+        User cached = cache.getIfPresent(seq);
+        if (cached != null)
+            return copyOf(cached);
+
+        invalidationLock.readLock().lock();
+        try {
+            User user = delegate.findOne(seq);
+            put(user);
+            return user;
+        } finally {
+            invalidationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 캐시에 있는 사용자는 캐시에서 꺼내고, 나머지만 delegate 에 한 번에 묻는다.
+     */
+    @Override
+    public List<User> findAllBySeq(Collection<Long> seqs) throws DataAccessException {
+        List<User> users = new ArrayList<>(seqs.size());
+        List<Long> misses = new ArrayList<>();
+        for (Long seq : new LinkedHashSet<>(seqs)) {
+            User cached = seq == null ? null : cache.getIfPresent(seq);
+            if (cached != null)
+                users.add(copyOf(cached));
+            else if (seq != null)
+                misses.add(seq);
+        }
+        if (misses.isEmpty()) {
+            users.sort(Comparator.comparing(User::getSeq));
+            return users;
+        }
+
+        invalidationLock.readLock().lock();
+        try {
+            for (User user : delegate.findAllBySeq(misses)) {
+                put(user);
+                users.add(user);
+            }
+        } finally {
+            invalidationLock.readLock().unlock();
+        }
+        users.sort(Comparator.comparing(User::getSeq));
+        return users;
+    }
+
+    /**
+     * 캐시에 있으면 캐시된 User 로 projection 을 만들고, 없으면 좁힌 컬럼만 읽는다. 이 경우 캐시에는 넣지 않는다.
+     */
+    @Override
+    public UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException {
+        User cached = cache.getIfPresent(seq);
+        if (cached != null)
+            return UserProjection.of(cached, fields);
+
+        return delegate.findOne(seq, fields);
+    }
+
+    @Override
+    public User save(User user) throws DataAccessException {
+        invalidationLock.readLock().lock();
+        try {
+            User saved = delegate.save(user);
+            put(saved);
+            return saved;
+        } finally {
+            invalidationLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void updatePassword(long seq, String passwd) throws DataAccessException {
+        delegate.updatePassword(seq, passwd);
+
+        invalidationLock.writeLock().lock();
+        try {
+            cache.invalidate(seq);
+        } finally {
+            invalidationLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void increaseLoginCounts(List<LoginCount> loginCounts) throws DataAccessException {
+        delegate.increaseLoginCounts(loginCounts);
+
+        invalidationLock.writeLock().lock();
+        try {
+            for (LoginCount loginCount : loginCounts)
+                cache.invalidate(loginCount.getSeq());
+        } finally {
+            invalidationLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(String email) throws DataAccessException {
+        delegate.delete(email);
+
+        invalidationLock.writeLock().lock();
+        try {
+            cache.asMap().values().removeIf(user -> user.getEmail().getAddress().equals(email));
+        } finally {
+            invalidationLock.writeLock().unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private void put(User user) {
+        if (user == null || user.getSeq() == null)
+            return;
+
+        cache.put(user.getSeq(), copyOf(user));
+    }
+
+    private static User copyOf(User user) {
+        return new User.Builder(user).build();
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.datasource.ReadYourWrites;
+import com.github.prgrms.socialserver.domain.User;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 짧은 시간 안에 동시에 들어온 findOne 을 모아 findAllBySeq 한 번으로 조회하는 decorator. (DataLoader 방식)
+ *
+ * 열린 배치가 없을 때 들어온 스레드가 leader 가 되어 window 동안 기다린 뒤 배치를 닫고 조회한다.
+ * 그 사이에 들어온 스레드는 배치에 seq 를 넣고 결과를 기다린다. 배치가 maxBatchSize 만큼 차면 바로 닫고 leader 를 깨운다.
+ * 트랜잭션 안의 조회는 자기 커넥션에서 읽어야 하므로 모으지 않는다.
+ * 배치 조회는 leader 스레드에서 실행되어 leader 의 ReadYourWrites 로 primary/replica 가 정해지므로,
+ * readYourWritesNanos 안에 쓴 스레드의 조회도 모으지 않고 자기 스레드에서 읽는다.
+ */
+public class CoalescingUserRepository extends ForwardingUserRepository {
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final long readYourWritesNanos;
+
+    private final AtomicReference<Batch> open = new AtomicReference<>();
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    public CoalescingUserRepository(UserRepository delegate, long windowNanos, int maxBatchSize) {
+        this(delegate, windowNanos, maxBatchSize, 0);
+    }
+
+    public CoalescingUserRepository(UserRepository delegate, long windowNanos, int maxBatchSize, long readYourWritesNanos) {
+        super(delegate);
+        checkArgument(windowNanos >= 0, "windowNanos must not be negative.");
+        checkArgument(maxBatchSize > 1, "maxBatchSize must be greater than 1.");
+        checkArgument(readYourWritesNanos >= 0, "readYourWritesNanos must not be negative.");
+
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+        this.readYourWritesNanos = readYourWritesNanos;
+    }
+
+    @Override
+    public User findOne(Long seq) throws DataAccessException {
+        if (seq == null || TransactionSynchronizationManager.isActualTransactionActive()
+                || readYourWritesNanos > 0 && ReadYourWrites.isWithin(readYourWritesNanos))
+            return delegate.findOne(seq);
+
+        lookups.increment();
+        while (true) {
+            Batch batch = open.get();
+            if (batch == null) {
+                Batch created = new Batch(seq);
+                if (open.compareAndSet(null, created))
+                    return lead(created, seq);
+                continue;
+            }
+            if (batch.add(seq)) {
+                if (batch.isFull())
+                    close(batch);
+                return batch.await(seq);
+            }
+            // 닫힌 배치는 leader 가 곧 치운다.
+            open.compareAndSet(batch, null);
+        }
+    }
+
+    private User lead(Batch batch, Long seq) {
+        long deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        while (!batch.isClosed() && (remaining = deadline - System.nanoTime()) > 0)
+            LockSupport.parkNanos(this, remaining);
+        Set<Long> seqs = close(batch);
+        batches.increment();
+
+        try {
+            if (seqs.size() == 1) {
+                batch.complete(Map.of(seq, delegate.findOne(seq)));
+            } else {
+                Map<Long, User> users = new HashMap<>();
+                for (User user : delegate.findAllBySeq(new ArrayList<>(seqs)))
+                    users.put(user.getSeq(), user);
+                batch.complete(users);
+            }
+        } catch (RuntimeException e) {
+            batch.fail(e);
+        }
+        return batch.await(seq);
+    }
+
+    private Set<Long> close(Batch batch) {
+        Set<Long> seqs = batch.close();
+        open.compareAndSet(batch, null);
+        LockSupport.unpark(batch.leader);
+        return seqs;
+    }
+
+    /**
+     * 모아서 처리한 findOne 호출 수.
+     */
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    /**
+     * 실제로 실행한 조회 수.
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    private final class Batch {
+
+        private final Thread leader = Thread.currentThread();
+
+        private final Set<Long> seqs = new LinkedHashSet<>();
+
+        private final CompletableFuture<Map<Long, User>> result = new CompletableFuture<>();
+
+        private boolean closed;
+
+        private Batch(Long seq) {
+            seqs.add(seq);
+        }
+
+        private synchronized boolean add(Long seq) {
+            if (closed)
+                return false;
+            seqs.add(seq);
+            return true;
+        }
+
+        private synchronized boolean isFull() {
+            return seqs.size() >= maxBatchSize;
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        private synchronized Set<Long> close() {
+            closed = true;
+            return seqs;
+        }
+
+        private void complete(Map<Long, User> users) {
+            result.complete(users);
+        }
+
+        private void fail(RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+
+        /**
+         * 같은 사용자를 여러 스레드가 받아 각자 고칠 수 있으므로(afterLoginSuccess) 복사해서 돌려준다.
+         */
+        private User await(Long seq) {
+            Map<Long, User> users;
+            try {
+                users = result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw e;
+            }
+            User user = users.get(seq);
+            if (user == null)
+                throw new EmptyResultDataAccessException(1);
+            return new User.Builder(user).build();
+        }
+    }
+}
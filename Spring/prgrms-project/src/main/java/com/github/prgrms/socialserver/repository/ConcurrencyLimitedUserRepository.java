@@ -0,0 +1,167 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * delegate 를 동시에 호출할 수 있는 스레드 수를 semaphore 로 제한하는 bulkhead.
+ * permit 수를 커넥션 풀 크기에 맞추면 요청 스레드가 아무리 많아도(virtual thread 포함)
+ * 커넥션 풀에서 기다리는 스레드가 생기지 않고, 초과 요청은 공정한 순서로 대기하다가 timeout 에 실패한다.
+ */
+public class ConcurrencyLimitedUserRepository extends ForwardingUserRepository {
+
+    private final Semaphore permits;
+
+    private final long acquireTimeoutMillis;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimitedUserRepository(UserRepository delegate, int maxConcurrency, long acquireTimeoutMillis) {
+        super(delegate);
+        checkArgument(maxConcurrency > 0, "maxConcurrency must be positive.");
+        checkArgument(acquireTimeoutMillis >= 0, "acquireTimeoutMillis must not be negative.");
+
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public boolean existsByEmail(String principal) {
+        return limit(() -> delegate.existsByEmail(principal));
+    }
+
+    @Override
+    public List<User> findAll() throws DataAccessException {
+        return limit(delegate::findAll);
+    }
+
+    @Override
+    public List<User> findAll(long cursor, int limit) throws DataAccessException {
+        return limit(() -> delegate.findAll(cursor, limit));
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) throws DataAccessException {
+        limit(() -> {
+            delegate.streamAll(consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public User findOne(Long seq) throws DataAccessException {
+        return limit(() -> delegate.findOne(seq));
+    }
+
+    @Override
+    public List<User> findAllBySeq(Collection<Long> seqs) throws DataAccessException {
+        return limit(() -> delegate.findAllBySeq(seqs));
+    }
+
+    @Override
+    public List<UserProjection> findAll(long cursor, int limit, Set<UserField> fields) throws DataAccessException {
+        return limit(() -> delegate.findAll(cursor, limit, fields));
+    }
+
+    @Override
+    public void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException {
+        limit(() -> {
+            delegate.streamAll(fields, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException {
+        return limit(() -> delegate.findOne(seq, fields));
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) throws DataAccessException {
+        return limit(() -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public User save(User user) throws DataAccessException {
+        return limit(() -> delegate.save(user));
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) throws DataAccessException {
+        return limit(() -> delegate.saveAll(users));
+    }
+
+    @Override
+    public void increaseLoginCounts(List<LoginCount> loginCounts) throws DataAccessException {
+        limit(() -> {
+            delegate.increaseLoginCounts(loginCounts);
+            return null;
+        });
+    }
+
+    @Override
+    public void updatePassword(long seq, String passwd) throws DataAccessException {
+        limit(() -> {
+            delegate.updatePassword(seq, passwd);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(String email) throws DataAccessException {
+        limit(() -> {
+            delegate.delete(email);
+            return null;
+        });
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int queueLength() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private <T> T limit(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        try {
+            if (permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new TransientDataAccessResourceException(
+                "Timed out after " + acquireTimeoutMillis + "ms waiting for a database permit.");
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.User;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * existsByEmail 앞단의 Bloom filter.
+ * filter 에 없는 이메일은 DB 를 조회하지 않고 사용 가능하다고 판단하고,
+ * filter 에 있을 수도 있는 이메일만 delegate 로 정확하게 확인한다.
+ *
+ * Bloom filter 는 삭제를 지원하지 않으므로 delete 된 이메일은 false positive 로 남는다.
+ * 저장된 이메일 수가 예상 크기를 넘으면 두 배 크기로 다시 만든다. 테이블 전체를 읽는 재구성은 저장한 요청 스레드가 아니라
+ * 전용 스레드에서 하고, 그동안은 기존 filter 로 답하면서 새로 저장된 이메일을 양쪽에 기록한다.
+ */
+public class EmailIndexUserRepository extends ForwardingUserRepository {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final double fpp;
+
+    private volatile long expectedInsertions;
+
+    private volatile BloomFilter<CharSequence> filter;
+
+    private volatile BloomFilter<CharSequence> rebuilding;
+
+    private final LongAdder negatives = new LongAdder();
+
+    private final LongAdder truePositives = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    private final AtomicBoolean growing = new AtomicBoolean();
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-index-rebuilder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EmailIndexUserRepository(UserRepository delegate, long expectedInsertions, double fpp) {
+        super(delegate);
+        checkArgument(expectedInsertions > 0, "expectedInsertions must be positive.");
+        checkArgument(fpp > 0 && fpp < 1, "fpp must be between 0 and 1.");
+
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+    }
+
+    /**
+     * USERS 테이블 전체를 읽어 filter 를 새로 만든다.
+     * 재구성 중에 저장되는 이메일은 기존 filter 와 새 filter 양쪽에 기록된다.
+     */
+    public synchronized void rebuild() {
+        rebuild(expectedInsertions);
+    }
+
+    private synchronized void rebuild(long size) {
+        BloomFilter<CharSequence> next = BloomFilter.create(Funnels.stringFunnel(UTF_8), size, fpp);
+        rebuilding = next;
+        try {
+            delegate.streamAll(user -> next.put(user.getEmail().getAddress()));
+            filter = next;
+            expectedInsertions = size;
+            log.info("Email index rebuilt with ~{} emails", next.approximateElementCount());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String principal) {
+        BloomFilter<CharSequence> current = filter;
+        if (current != null && !current.mightContain(principal)) {
+            negatives.increment();
+            return false;
+        }
+
+        boolean exists = delegate.existsByEmail(principal);
+        if (current != null) {
+            if (exists)
+                truePositives.increment();
+            else
+                falsePositives.increment();
+        }
+        return exists;
+    }
+
+    @Override
+    public User save(User user) throws DataAccessException {
+        User saved = delegate.save(user);
+        index(saved.getEmail().getAddress());
+        return saved;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) throws DataAccessException {
+        List<User> saved = delegate.saveAll(users);
+        for (User user : saved) {
+            if (user.getSeq() != null)
+                index(user.getEmail().getAddress());
+        }
+        return saved;
+    }
+
+    public long getNegatives() {
+        return negatives.sum();
+    }
+
+    public long getTruePositives() {
+        return truePositives.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * 실제로 없는 이메일 중 filter 가 있다고 답한 비율.
+     */
+    public double falsePositiveRate() {
+        long falsePositives = getFalsePositives();
+        long actualNegatives = falsePositives + getNegatives();
+        return actualNegatives == 0 ? 0.0 : (double) falsePositives / actualNegatives;
+    }
+
+    public double expectedFpp() {
+        BloomFilter<CharSequence> current = filter;
+        return current == null ? 1.0 : current.expectedFpp();
+    }
+
+    public long approximateElementCount() {
+        BloomFilter<CharSequence> current = filter;
+        return current == null ? 0 : current.approximateElementCount();
+    }
+
+    private void index(String address) {
+        // rebuilding 을 filter 보다 먼저 읽어야 재구성이 끝나는 순간에도 새 filter 에 기록된다.
+        BloomFilter<CharSequence> next = rebuilding;
+        BloomFilter<CharSequence> current = filter;
+        if (next != null)
+            next.put(address);
+        if (current != null)
+            current.put(address);
+
+        if (current != null && current.approximateElementCount() > expectedInsertions)
+            grow();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        rebuilder.shutdown();
+        rebuilder.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 재구성은 한 번에 하나만 예약한다. 실패하면 기존 filter 와 크기를 그대로 두고, 다음 저장에서 다시 예약된다.
+     */
+    private void grow() {
+        if (!growing.compareAndSet(false, true))
+            return;
+
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    BloomFilter<CharSequence> current = filter;
+                    if (current != null && current.approximateElementCount() > expectedInsertions)
+                        rebuild(expectedInsertions * 2);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to grow email index: {}", e.getMessage(), e);
+                } finally {
+                    growing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            growing.set(false);
+        }
+    }
+}
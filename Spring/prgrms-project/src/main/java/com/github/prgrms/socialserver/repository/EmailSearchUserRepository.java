@@ -0,0 +1,180 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.domain.UserSearchPage;
+import com.github.prgrms.socialserver.util.RadixTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+
+/**
+ * 이메일 prefix / 도메인 검색용 trie 색인을 유지하는 decorator.
+ *
+ * addresses 는 주소 그대로("local@domain"), domains 는 도메인을 뒤집은 "niamod@local" 을 키로 가진다.
+ * 도메인을 뒤집으면 "gmail.com" 과 그 하위 도메인이 모두 "moc.liamg" 로 시작하므로 도메인 검색도 prefix 검색이 된다.
+ * 결과는 키의 사전순이며, 마지막 키를 cursor 로 받아 그 다음부터 이어서 찾는다.
+ *
+ * 색인 변경은 delegate 호출이 끝난 뒤 write lock 안에서 한다. rebuild 도 write lock 을 쥔 채
+ * 테이블을 읽으므로, 재구성과 겹친 저장/삭제는 재구성이 끝난 뒤에 색인에 반영된다.
+ */
+public class EmailSearchUserRepository extends ForwardingUserRepository {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final Set<UserField> SEARCH_FIELDS = Collections.unmodifiableSet(EnumSet.of(UserField.SEQ, UserField.EMAIL));
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private RadixTree addresses = new RadixTree();
+
+    private RadixTree domains = new RadixTree();
+
+    public EmailSearchUserRepository(UserRepository delegate) {
+        super(delegate);
+    }
+
+    public void rebuild() {
+        RadixTree nextAddresses = new RadixTree();
+        RadixTree nextDomains = new RadixTree();
+        lock.writeLock().lock();
+        try {
+            delegate.streamAll(SEARCH_FIELDS, user -> index(nextAddresses, nextDomains, user.getSeq(), user.getEmail()));
+            addresses = nextAddresses;
+            domains = nextDomains;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Email search index rebuilt with {} emails", nextAddresses.size());
+    }
+
+    /**
+     * prefix 는 이메일 주소의 앞부분, domain 은 도메인(하위 도메인 포함)이다.
+     * 둘 다 주면 그 도메인(하위 도메인 제외)에서 local-part 가 prefix 로 시작하는 사용자를 찾는다.
+     */
+    public UserSearchPage search(String prefix, String domain, String cursor, int limit) {
+        checkArgument(isNotEmpty(prefix) || isNotEmpty(domain), "prefix or domain must be provided.");
+        checkArgument(limit >= 1 && limit <= MAX_LIMIT, "limit must be between 1 and " + MAX_LIMIT + ".");
+
+        boolean byDomain = isNotEmpty(domain);
+        List<String> keys = new ArrayList<>(Math.min(limit + 1, 64));
+        long[] seqs = new long[limit + 1];
+        RadixTree.Visitor collector = (key, seq) -> {
+            seqs[keys.size()] = seq;
+            keys.add(key.toString());
+            return keys.size() <= limit;
+        };
+
+        lock.readLock().lock();
+        try {
+            if (byDomain && isNotEmpty(prefix)) {
+                domains.scan(reverse(domain) + "@" + prefix, cursor, collector);
+            } else if (byDomain) {
+                // '.' 이 '@' 보다 앞이므로 하위 도메인을 먼저, 그 도메인 자체를 나중에 훑어도 사전순이 유지된다.
+                domains.scan(reverse(domain) + ".", cursor, collector);
+                if (keys.size() <= limit)
+                    domains.scan(reverse(domain) + "@", cursor, collector);
+            } else {
+                addresses.scan(prefix, cursor, collector);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // limit + 1 건까지 읽어 다음 페이지가 있는지 판단한다.
+        int count = Math.min(keys.size(), limit);
+        List<UserProjection> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            users.add(new UserProjection(SEARCH_FIELDS, seqs[i], new Email(addressOf(keys.get(i), byDomain)), 0, null, null));
+        String nextCursor = keys.size() > limit ? keys.get(limit - 1) : null;
+        return new UserSearchPage(users, nextCursor);
+    }
+
+    @Override
+    public User save(User user) throws DataAccessException {
+        User saved = delegate.save(user);
+        lock.writeLock().lock();
+        try {
+            index(addresses, domains, saved.getSeq(), saved.getEmail());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) throws DataAccessException {
+        List<User> saved = delegate.saveAll(users);
+        lock.writeLock().lock();
+        try {
+            for (User user : saved) {
+                if (user.getSeq() != null)
+                    index(addresses, domains, user.getSeq(), user.getEmail());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    @Override
+    public void delete(String email) throws DataAccessException {
+        delegate.delete(email);
+        int at = email.lastIndexOf('@');
+        lock.writeLock().lock();
+        try {
+            addresses.remove(email);
+            if (at > 0)
+                domains.remove(domainKey(email.substring(0, at), email.substring(at + 1)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return addresses.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void index(RadixTree addresses, RadixTree domains, long seq, Email email) {
+        addresses.put(email.getAddress(), seq);
+        domains.put(domainKey(email.getName(), email.getDomain()), seq);
+    }
+
+    private static String domainKey(String name, String domain) {
+        return reverse(domain) + "@" + name;
+    }
+
+    /**
+     * 색인 키를 이메일 주소로 되돌린다. 도메인에는 '@' 가 없으므로 첫 '@' 가 경계이다.
+     */
+    private static String addressOf(String key, boolean byDomain) {
+        if (!byDomain)
+            return key;
+        int at = key.indexOf('@');
+        return key.substring(at + 1) + "@" + reverse(key.substring(0, at));
+    }
+
+    private static String reverse(String value) {
+        return new StringBuilder(value).reverse().toString();
+    }
+}
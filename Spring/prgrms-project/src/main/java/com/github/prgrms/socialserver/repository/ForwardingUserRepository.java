@@ -0,0 +1,106 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import org.springframework.dao.DataAccessException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 모든 호출을 delegate 에 그대로 넘기는 UserRepository.
+ * 캐시, 인덱스 같은 decorator 는 이 클래스를 상속해 필요한 메소드만 재정의한다.
+ */
+public abstract class ForwardingUserRepository implements UserRepository {
+
+    protected final UserRepository delegate;
+
+    protected ForwardingUserRepository(UserRepository delegate) {
+        checkNotNull(delegate, "delegate must be provided.");
+
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean existsByEmail(String principal) {
+        return delegate.existsByEmail(principal);
+    }
+
+    @Override
+    public List<User> findAll() throws DataAccessException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findAll(long cursor, int limit) throws DataAccessException {
+        return delegate.findAll(cursor, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) throws DataAccessException {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public User findOne(Long seq) throws DataAccessException {
+        return delegate.findOne(seq);
+    }
+
+    @Override
+    public List<User> findAllBySeq(Collection<Long> seqs) throws DataAccessException {
+        return delegate.findAllBySeq(seqs);
+    }
+
+    @Override
+    public List<UserProjection> findAll(long cursor, int limit, Set<UserField> fields) throws DataAccessException {
+        return delegate.findAll(cursor, limit, fields);
+    }
+
+    @Override
+    public void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException {
+        delegate.streamAll(fields, consumer);
+    }
+
+    @Override
+    public UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException {
+        return delegate.findOne(seq, fields);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) throws DataAccessException {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public User save(User user) throws DataAccessException {
+        return delegate.save(user);
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) throws DataAccessException {
+        return delegate.saveAll(users);
+    }
+
+    @Override
+    public void increaseLoginCounts(List<LoginCount> loginCounts) throws DataAccessException {
+        delegate.increaseLoginCounts(loginCounts);
+    }
+
+    @Override
+    public void updatePassword(long seq, String passwd) throws DataAccessException {
+        delegate.updatePassword(seq, passwd);
+    }
+
+    @Override
+    public void delete(String email) throws DataAccessException {
+        delegate.delete(email);
+    }
+}
@@ -0,0 +1,207 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 동시에 들어온 save 를 모아 saveAll 한 번(한 트랜잭션)으로 저장하는 group commit decorator.
+ *
+ * 호출한 스레드는 사용자를 큐에 넣고 결과를 기다린다. writer 스레드 하나가 큐에서 첫 요청을 꺼낸 뒤
+ * window 동안 또는 maxBatchSize 개가 찰 때까지 더 모아 saveAll 하고, 각 호출자에게 생성된 seq 를 돌려준다.
+ * 이미 있는 이메일(unq_user_email)은 saveAll 이 seq 없이 돌려주므로 그 호출자만 DuplicateKeyException 으로 실패한다.
+ * 트랜잭션 안의 save 는 그 트랜잭션에 포함되어야 하므로 모으지 않는다.
+ */
+public class GroupCommitUserRepository extends ForwardingUserRepository {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingSave> queue;
+
+    private final Thread writer;
+
+    private final LongAdder saves = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean running = true;
+
+    public GroupCommitUserRepository(UserRepository delegate, long windowNanos, int maxBatchSize, int queueCapacity) {
+        super(delegate);
+        checkArgument(windowNanos >= 0, "windowNanos must not be negative.");
+        checkArgument(maxBatchSize > 0, "maxBatchSize must be positive.");
+        checkArgument(queueCapacity > 0, "queueCapacity must be positive.");
+
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::drain, "user-group-commit");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public User save(User user) throws DataAccessException {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive())
+            return delegate.save(user);
+
+        PendingSave pending = new PendingSave(user);
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new TransientDataAccessResourceException("Group commit queue is full.");
+        }
+        saves.increment();
+        return pending.await();
+    }
+
+    /**
+     * writer 를 멈춘다. 큐에 남은 요청은 모두 저장한 뒤 끝나고, 이후의 save 는 delegate 로 바로 간다.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+
+        // running 을 확인한 직후에 큐에 넣은 호출이 남아 있을 수 있다.
+        List<PendingSave> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty())
+            commit(remaining);
+    }
+
+    /**
+     * 큐에 들어온 save 호출 수.
+     */
+    public long getSaves() {
+        return saves.sum();
+    }
+
+    /**
+     * 실제로 실행한 saveAll 수.
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * 큐가 가득 차 거절한 save 호출 수.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void drain() {
+        List<PendingSave> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSave first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                collect(batch, System.nanoTime() + windowNanos);
+                commit(batch);
+            } catch (InterruptedException e) {
+                // 종료는 running 으로만 판단한다. 모으던 요청은 그대로 저장한다.
+                if (!batch.isEmpty())
+                    commit(batch);
+            } catch (RuntimeException e) {
+                log.warn("Unexpected group commit failure: {}", e.getMessage(), e);
+                batch.forEach(pending -> pending.fail(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingSave> batch, long deadline) throws InterruptedException {
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0)
+                return;
+            PendingSave next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null)
+                return;
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingSave> batch) {
+        List<User> users = new ArrayList<>(batch.size());
+        for (PendingSave pending : batch)
+            users.add(pending.user);
+        batches.increment();
+
+        List<User> saved;
+        try {
+            saved = delegate.saveAll(users);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.fail(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            User user = saved.get(i);
+            if (user.getSeq() != null)
+                batch.get(i).complete(user);
+            else
+                batch.get(i).fail(new DuplicateKeyException("Duplicate email: " + user.getEmail().getAddress()));
+        }
+    }
+
+    private static final class PendingSave {
+
+        private final User user;
+
+        private final CompletableFuture<User> result = new CompletableFuture<>();
+
+        private PendingSave(User user) {
+            this.user = user;
+        }
+
+        private void complete(User saved) {
+            result.complete(saved);
+        }
+
+        private void fail(RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+
+        private User await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,660 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.util.LongObjectHashMap;
+import com.google.common.io.CountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import javax.validation.Valid;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * DB 없이 프로세스 안에서 사용자를 보관하는 저장소. ("memory" 프로파일)
+ * seq 는 boxing 없는 long 해시 맵, email 은 HashMap 으로 찾고, seq 오름차순 배열로 페이지를 자른다.
+ *
+ * 모든 변경은 메모리에 반영하기 전에 append-only 로그(users-{generation}.log)에 먼저 쓴다.
+ * 로그가 snapshotEvery 건을 넘으면 새 generation 의 로그로 갈아탄 뒤 락 밖에서 스냅샷을 쓰고,
+ * 스냅샷이 완성되면 이전 로그를 지운다. 재시작 시 스냅샷을 읽고 그 generation 이후의 로그를 순서대로 재생한다.
+ */
+@Repository
+@Qualifier("userStore")
+@Profile("memory")
+public class InMemoryUserRepository implements UserRepository, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryUserRepository.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x55534552;
+
+    private static final String SNAPSHOT_FILE = "users.snapshot";
+
+    private static final String LOG_PREFIX = "users-";
+
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final byte SAVE = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final byte LOGIN = 3;
+
+    private static final byte PASSWORD = 4;
+
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    private final Path directory;
+
+    private final int snapshotEvery;
+
+    private final boolean fsync;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+
+    private final LongObjectHashMap<User> usersBySeq = new LongObjectHashMap<>();
+
+    private final Map<String, User> usersByEmail = new HashMap<>();
+
+    /**
+     * 저장된 seq 를 오름차순으로 담는다. seq 는 항상 증가하므로 추가는 끝에 붙이기만 하면 된다.
+     */
+    private long[] seqs = new long[16];
+
+    private int size;
+
+    private long lastSeq;
+
+    private long generation;
+
+    private FileOutputStream logFile;
+
+    private DataOutputStream logOut;
+
+    private int logRecords;
+
+    public InMemoryUserRepository(@Value("${users.memory.data-dir:./data}") String directory,
+                                  @Value("${users.memory.snapshot-every:100000}") int snapshotEvery,
+                                  @Value("${users.memory.fsync:false}") boolean fsync) {
+        checkArgument(snapshotEvery > 0, "snapshotEvery must be positive.");
+
+        this.directory = Paths.get(directory);
+        this.snapshotEvery = snapshotEvery;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(this.directory);
+            recover();
+            openLog();
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot open user store at " + this.directory, e);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String principal) {
+        lock.readLock().lock();
+        try {
+            return usersByEmail.containsKey(principal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAll() throws DataAccessException {
+        return findAll(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> findAll(long cursor, int limit) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            int from = Arrays.binarySearch(seqs, 0, size, cursor);
+            from = from >= 0 ? from + 1 : -(from + 1);
+            int to = (int) Math.min(size, (long) from + limit);
+
+            List<User> users = new ArrayList<>(Math.max(to - from, 0));
+            for (int i = from; i < to; i++)
+                users.add(copyOf(usersBySeq.get(seqs[i])));
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * consumer 가 느려도 쓰기를 막지 않도록 STREAM_CHUNK_SIZE 건씩 잘라 읽고 락을 놓은 뒤에 넘긴다.
+     */
+    @Override
+    public void streamAll(Consumer<User> consumer) throws DataAccessException {
+        long cursor = 0;
+        List<User> chunk;
+        do {
+            chunk = findAll(cursor, STREAM_CHUNK_SIZE);
+            for (User user : chunk)
+                consumer.accept(user);
+            if (!chunk.isEmpty())
+                cursor = chunk.get(chunk.size() - 1).getSeq();
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
+    @Override
+    public User findOne(Long seq) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            User user = seq == null || seq == 0 ? null : usersBySeq.get(seq);
+            if (user == null)
+                throw new EmptyResultDataAccessException(1);
+            return copyOf(user);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAllBySeq(Collection<Long> seqs) throws DataAccessException {
+        long[] sorted = seqs.stream().filter(Objects::nonNull).mapToLong(Long::longValue).distinct().sorted().toArray();
+        List<User> users = new ArrayList<>(sorted.length);
+        lock.readLock().lock();
+        try {
+            for (long seq : sorted) {
+                User user = seq == 0 ? null : usersBySeq.get(seq);
+                if (user != null)
+                    users.add(copyOf(user));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<UserProjection> findAll(long cursor, int limit, Set<UserField> fields) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            int from = Arrays.binarySearch(seqs, 0, size, cursor);
+            from = from >= 0 ? from + 1 : -(from + 1);
+            int to = (int) Math.min(size, (long) from + limit);
+
+            List<UserProjection> users = new ArrayList<>(Math.max(to - from, 0));
+            for (int i = from; i < to; i++)
+                users.add(UserProjection.of(usersBySeq.get(seqs[i]), fields));
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException {
+        long cursor = 0;
+        List<UserProjection> chunk;
+        do {
+            chunk = findAll(cursor, STREAM_CHUNK_SIZE, fields);
+            for (UserProjection user : chunk)
+                consumer.accept(user);
+            if (!chunk.isEmpty())
+                cursor = chunk.get(chunk.size() - 1).getSeq();
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
+    /**
+     * 저장된 User 는 바뀌지 않으므로 복사하지 않고 바로 projection 을 만든다.
+     */
+    @Override
+    public UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            User user = seq == null || seq == 0 ? null : usersBySeq.get(seq);
+            if (user == null)
+                throw new EmptyResultDataAccessException(1);
+            return UserProjection.of(user, fields);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(usersByEmail.get(email.getAddress())).map(InMemoryUserRepository::copyOf);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User save(@Valid User user) throws DataAccessException {
+        User saved;
+        lock.writeLock().lock();
+        try {
+            if (usersByEmail.containsKey(user.getEmail().getAddress()))
+                throw new DuplicateKeyException("Duplicate email: " + user.getEmail().getAddress());
+
+            saved = new User.Builder(user).seq(lastSeq + 1).build();
+            writeSave(saved);
+            flushLog();
+            applySave(saved);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshotIfNeeded();
+        return copyOf(saved);
+    }
+
+    /**
+     * 여러 건의 로그 레코드를 한 번에 flush 한다.
+     */
+    @Override
+    public List<User> saveAll(List<User> users) throws DataAccessException {
+        List<User> results = new ArrayList<>(users.size());
+        lock.writeLock().lock();
+        try {
+            for (User user : users) {
+                if (usersByEmail.containsKey(user.getEmail().getAddress())) {
+                    results.add(new User.Builder(user).seq(null).build());
+                    continue;
+                }
+                User saved = new User.Builder(user).seq(lastSeq + 1).build();
+                writeSave(saved);
+                applySave(saved);
+                results.add(copyOf(saved));
+            }
+            flushLog();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshotIfNeeded();
+        return results;
+    }
+
+    @Override
+    public void increaseLoginCounts(List<LoginCount> loginCounts) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            for (LoginCount loginCount : loginCounts) {
+                if (!usersBySeq.containsKey(loginCount.getSeq()))
+                    continue;
+                writeLogin(loginCount);
+                applyLogin(loginCount.getSeq(), loginCount.getCount(), loginCount.getLastLoginAt());
+            }
+            flushLog();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshotIfNeeded();
+    }
+
+    @Override
+    public void updatePassword(long seq, String passwd) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            if (!usersBySeq.containsKey(seq))
+                return;
+            writePassword(seq, passwd);
+            flushLog();
+            applyPassword(seq, passwd);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshotIfNeeded();
+    }
+
+    @Override
+    public void delete(String email) throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            if (!usersByEmail.containsKey(email))
+                return;
+            writeDelete(email);
+            flushLog();
+            applyDelete(email);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        snapshotIfNeeded();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 지금 상태의 스냅샷을 쓰고 이전 로그를 정리한다.
+     */
+    public void snapshot() throws DataAccessException {
+        if (!snapshotting.compareAndSet(false, true))
+            return;
+        try {
+            User[] users;
+            long snapshotLastSeq;
+            long snapshotGeneration;
+            lock.writeLock().lock();
+            try {
+                users = new User[size];
+                for (int i = 0; i < size; i++)
+                    users[i] = usersBySeq.get(seqs[i]);
+                snapshotLastSeq = lastSeq;
+                closeLog();
+                generation++;
+                snapshotGeneration = generation;
+                openLog();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 저장된 User 는 교체만 하고 수정하지 않으므로 락 없이 써도 일관된 스냅샷이 된다.
+            writeSnapshot(users, snapshotLastSeq, snapshotGeneration);
+            deleteLogsBefore(snapshotGeneration);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot write user snapshot", e);
+        } finally {
+            snapshotting.set(false);
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closeLog();
+        } catch (IOException e) {
+            log.warn("Cannot close user log: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void snapshotIfNeeded() {
+        if (logRecords >= snapshotEvery)
+            snapshot();
+    }
+
+    private void applySave(User user) {
+        long seq = user.getSeq();
+        if (usersBySeq.containsKey(seq))
+            return;
+        if (size == seqs.length)
+            seqs = Arrays.copyOf(seqs, size * 2);
+        seqs[size++] = seq;
+        usersBySeq.put(seq, user);
+        usersByEmail.put(user.getEmail().getAddress(), user);
+        lastSeq = Math.max(lastSeq, seq);
+    }
+
+    private void applyLogin(long seq, int count, LocalDateTime lastLoginAt) {
+        User user = usersBySeq.get(seq);
+        if (user == null)
+            return;
+        LocalDateTime previous = user.getLast_login_at().orElse(null);
+        User updated = new User.Builder(user)
+                .login_count(user.getLogin_count() + count)
+                .last_login_at(previous == null || previous.isBefore(lastLoginAt) ? lastLoginAt : previous)
+                .build();
+        usersBySeq.put(seq, updated);
+        usersByEmail.put(updated.getEmail().getAddress(), updated);
+    }
+
+    private void applyPassword(long seq, String passwd) {
+        User user = usersBySeq.get(seq);
+        if (user == null)
+            return;
+        User updated = new User.Builder(user).passwd(passwd).build();
+        usersBySeq.put(seq, updated);
+        usersByEmail.put(updated.getEmail().getAddress(), updated);
+    }
+
+    private void applyDelete(String email) {
+        User user = usersByEmail.remove(email);
+        if (user == null)
+            return;
+        usersBySeq.remove(user.getSeq());
+        int index = Arrays.binarySearch(seqs, 0, size, user.getSeq());
+        System.arraycopy(seqs, index + 1, seqs, index, size - index - 1);
+        size--;
+    }
+
+    private void writeSave(User user) {
+        try {
+            logOut.writeByte(SAVE);
+            writeUser(logOut, user);
+            logRecords++;
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot append to user log", e);
+        }
+    }
+
+    private void writeLogin(LoginCount loginCount) {
+        try {
+            logOut.writeByte(LOGIN);
+            logOut.writeLong(loginCount.getSeq());
+            logOut.writeInt(loginCount.getCount());
+            writeDateTime(logOut, loginCount.getLastLoginAt());
+            logRecords++;
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot append to user log", e);
+        }
+    }
+
+    private void writePassword(long seq, String passwd) {
+        try {
+            logOut.writeByte(PASSWORD);
+            logOut.writeLong(seq);
+            logOut.writeUTF(passwd);
+            logRecords++;
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot append to user log", e);
+        }
+    }
+
+    private void writeDelete(String email) {
+        try {
+            logOut.writeByte(DELETE);
+            logOut.writeUTF(email);
+            logRecords++;
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot append to user log", e);
+        }
+    }
+
+    private void flushLog() {
+        try {
+            logOut.flush();
+            if (fsync)
+                logFile.getFD().sync();
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot flush user log", e);
+        }
+    }
+
+    private void openLog() throws IOException {
+        logFile = new FileOutputStream(logPath(generation).toFile(), true);
+        logOut = new DataOutputStream(new BufferedOutputStream(logFile, 64 * 1024));
+        logRecords = 0;
+    }
+
+    private void closeLog() throws IOException {
+        if (logOut == null)
+            return;
+        logOut.flush();
+        if (fsync)
+            logFile.getFD().sync();
+        logOut.close();
+        logOut = null;
+    }
+
+    private void recover() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot))
+            readSnapshot(snapshot);
+
+        List<Long> generations = logGenerations();
+        for (long logGeneration : generations) {
+            if (logGeneration >= generation)
+                replay(logPath(logGeneration));
+        }
+        if (!generations.isEmpty())
+            generation = Math.max(generation, generations.get(generations.size() - 1));
+        deleteLogsBefore(generation);
+        log.info("Recovered {} users from {} (generation {})", size, directory, generation);
+    }
+
+    private void readSnapshot(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 64 * 1024))) {
+            if (in.readInt() != SNAPSHOT_MAGIC)
+                throw new IOException("Not a user snapshot: " + snapshot);
+            generation = in.readLong();
+            lastSeq = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++)
+                applySave(readUser(in));
+        }
+    }
+
+    /**
+     * 로그를 처음부터 재생한다. 쓰다 만 마지막 레코드는 버리고 파일을 그 앞까지 잘라낸다.
+     */
+    private void replay(Path path) throws IOException {
+        long valid = 0;
+        try (CountingInputStream counting = new CountingInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+             DataInputStream in = new DataInputStream(counting)) {
+            while (true) {
+                int type = in.read();
+                if (type < 0)
+                    break;
+                if (type == SAVE)
+                    applySave(readUser(in));
+                else if (type == LOGIN)
+                    applyLogin(in.readLong(), in.readInt(), readDateTime(in));
+                else if (type == PASSWORD)
+                    applyPassword(in.readLong(), in.readUTF());
+                else if (type == DELETE)
+                    applyDelete(in.readUTF());
+                else
+                    throw new IOException("Unknown record type " + type + " in " + path);
+                valid = counting.getCount();
+            }
+        } catch (EOFException e) {
+            log.warn("Discarding torn record at offset {} of {}", valid, path);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > valid)
+                channel.truncate(valid);
+        }
+    }
+
+    private void writeSnapshot(User[] users, long snapshotLastSeq, long snapshotGeneration) throws IOException {
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(snapshotGeneration);
+            out.writeLong(snapshotLastSeq);
+            out.writeInt(users.length);
+            for (User user : users)
+                writeUser(out, user);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path path : logs) {
+                String name = path.getFileName().toString();
+                generations.add(Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private void deleteLogsBefore(long keepFrom) throws IOException {
+        for (long logGeneration : logGenerations()) {
+            if (logGeneration < keepFrom)
+                Files.deleteIfExists(logPath(logGeneration));
+        }
+    }
+
+    private Path logPath(long logGeneration) {
+        return directory.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX);
+    }
+
+    private static void writeUser(DataOutput out, User user) throws IOException {
+        out.writeLong(user.getSeq());
+        out.writeUTF(user.getEmail().getAddress());
+        out.writeUTF(user.getPasswd());
+        out.writeInt(user.getLogin_count());
+        writeDateTime(out, user.getLast_login_at().orElse(null));
+        writeDateTime(out, user.getCreate_at());
+    }
+
+    private static User readUser(DataInput in) throws IOException {
+        return new User.Builder()
+                .seq(in.readLong())
+                .email(new Email(in.readUTF()))
+                .passwd(in.readUTF())
+                .login_count(in.readInt())
+                .last_login_at(readDateTime(in))
+                .create_at(readDateTime(in))
+                .build();
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean())
+            return null;
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * 저장된 User 는 공유하지 않는다. 호출자가 afterLoginSuccess 등으로 값을 바꿔도 저장소에 새지 않게 복사해서 넘긴다.
+     */
+    private static User copyOf(User user) {
+        return new User.Builder(user).build();
+    }
+}
@@ -0,0 +1,269 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+
+/**
+ * 이메일 해시로 사용자를 N 개의 DB 에 나눠 저장하는 UserRepository. ("sharded" 프로파일)
+ *
+ * 샤드 i 는 seq 를 [i * SEQ_RANGE + 1, (i + 1) * SEQ_RANGE] 구간에서만 발급하므로
+ * seq 만 보고도 샤드를 알 수 있다. 구간은 샤드의 seq 시작값을 옮겨(ALTER ... RESTART WITH) 정한다.
+ * 구간이 샤드 순서대로 겹치지 않으므로, 샤드별 seq 오름차순 결과를 샤드 순서대로 이으면 전체 seq 순서가 된다.
+ */
+public class ShardedUserRepository implements UserRepository {
+
+    /**
+     * 샤드 하나가 발급할 수 있는 seq 개수. (2^40)
+     */
+    public static final long SEQ_RANGE = 1L << 40;
+
+    private static final HashFunction EMAIL_HASH = Hashing.murmur3_32();
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final List<UserRepository> shards;
+
+    private final ExecutorService executor;
+
+    public ShardedUserRepository(List<DataSource> dataSources, MetricsRegistry metricsRegistry, int batchChunkSize, int streamFetchSize) {
+        checkArgument(!dataSources.isEmpty(), "dataSources must be provided.");
+
+        List<UserRepository> shards = new ArrayList<>(dataSources.size());
+        for (int i = 0; i < dataSources.size(); i++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSources.get(i));
+            allocateSeqRange(jdbcTemplate, i);
+            shards.add(new UserRepositoryImpl(jdbcTemplate, metricsRegistry, batchChunkSize, streamFetchSize));
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        this.shards = Collections.unmodifiableList(shards);
+        this.executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "user-shard-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 비어 있는 샤드는 seq 시작값을 자기 구간의 처음으로 옮긴다. 이미 구간 안에 있으면 그대로 둔다.
+     */
+    private void allocateSeqRange(JdbcTemplate jdbcTemplate, int shard) {
+        long first = shard * SEQ_RANGE + 1;
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM USERS", Long.class);
+        long current = max == null ? 0 : max;
+        checkArgument(current == 0 || shardOfSeq(current) == shard,
+                "Shard %s holds seq %s outside of its range.", shard, current);
+        if (current < first) {
+            jdbcTemplate.execute("ALTER TABLE USERS ALTER COLUMN SEQ RESTART WITH " + first);
+            log.info("Shard {} allocates seq from {}", shard, first);
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String principal) {
+        return shardOf(principal).existsByEmail(principal);
+    }
+
+    @Override
+    public List<User> findAll() throws DataAccessException {
+        List<User> users = concat(fanOut(UserRepository::findAll));
+        users.sort(comparing(User::getSeq));
+        return users;
+    }
+
+    @Override
+    public List<User> findAll(long cursor, int limit) throws DataAccessException {
+        List<User> users = concat(fanOut(shard -> shard.findAll(cursor, limit)));
+        return users.size() > limit ? new ArrayList<>(users.subList(0, limit)) : users;
+    }
+
+    /**
+     * 샤드를 순서대로 하나씩 흘려보낸다. 한 번에 한 샤드의 커서만 열려 있으므로 메모리 사용량은 단일 DB 와 같다.
+     */
+    @Override
+    public void streamAll(Consumer<User> consumer) throws DataAccessException {
+        for (UserRepository shard : shards)
+            shard.streamAll(consumer);
+    }
+
+    @Override
+    public User findOne(Long seq) throws DataAccessException {
+        return shardOfSeq(seq, "findOne").findOne(seq);
+    }
+
+    /**
+     * seq 범위로 샤드를 나눠 동시에 읽는다. 샤드 순서가 곧 seq 순서이므로 이어 붙이기만 한다.
+     */
+    @Override
+    public List<User> findAllBySeq(Collection<Long> seqs) throws DataAccessException {
+        List<List<Long>> partitions = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++)
+            partitions.add(new ArrayList<>());
+        for (Long seq : seqs) {
+            int shard = seq == null ? -1 : shardOfSeq(seq);
+            if (shard >= 0 && shard < shards.size())
+                partitions.get(shard).add(seq);
+        }
+
+        return concat(fanOut(shard -> {
+            List<Long> partition = partitions.get(shards.indexOf(shard));
+            return partition.isEmpty() ? Collections.<User>emptyList() : shard.findAllBySeq(partition);
+        }));
+    }
+
+    @Override
+    public List<UserProjection> findAll(long cursor, int limit, Set<UserField> fields) throws DataAccessException {
+        List<UserProjection> users = concat(fanOut(shard -> shard.findAll(cursor, limit, fields)));
+        return users.size() > limit ? new ArrayList<>(users.subList(0, limit)) : users;
+    }
+
+    @Override
+    public void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException {
+        for (UserRepository shard : shards)
+            shard.streamAll(fields, consumer);
+    }
+
+    @Override
+    public UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException {
+        return shardOfSeq(seq, "findOne").findOne(seq, fields);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) throws DataAccessException {
+        return shardOf(email.getAddress()).findByEmail(email);
+    }
+
+    @Override
+    public User save(User user) throws DataAccessException {
+        return shardOf(user.getEmail().getAddress()).save(user);
+    }
+
+    /**
+     * 샤드별로 나눠 동시에 저장하고 입력 순서대로 다시 모은다.
+     */
+    @Override
+    public List<User> saveAll(List<User> users) throws DataAccessException {
+        List<List<Integer>> indexes = new ArrayList<>(shards.size());
+        List<List<User>> partitions = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            indexes.add(new ArrayList<>());
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < users.size(); i++) {
+            int shard = shardIndexOf(users.get(i).getEmail().getAddress());
+            indexes.get(shard).add(i);
+            partitions.get(shard).add(users.get(i));
+        }
+
+        List<List<User>> saved = fanOut(shard -> {
+            List<User> partition = partitions.get(shards.indexOf(shard));
+            return partition.isEmpty() ? Collections.<User>emptyList() : shard.saveAll(partition);
+        });
+        User[] results = new User[users.size()];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int i = 0; i < saved.get(shard).size(); i++)
+                results[indexes.get(shard).get(i)] = saved.get(shard).get(i);
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public void increaseLoginCounts(List<LoginCount> loginCounts) throws DataAccessException {
+        Map<Integer, List<LoginCount>> partitions = new TreeMap<>();
+        for (LoginCount loginCount : loginCounts) {
+            int shard = shardOfSeq(loginCount.getSeq());
+            if (shard >= 0 && shard < shards.size())
+                partitions.computeIfAbsent(shard, key -> new ArrayList<>()).add(loginCount);
+        }
+        partitions.forEach((shard, partition) -> shards.get(shard).increaseLoginCounts(partition));
+    }
+
+    @Override
+    public void updatePassword(long seq, String passwd) throws DataAccessException {
+        shardOfSeq(seq, "updatePassword").updatePassword(seq, passwd);
+    }
+
+    @Override
+    public void delete(String email) throws DataAccessException {
+        shardOf(email).delete(email);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardIndexOf(String email) {
+        return Math.floorMod(EMAIL_HASH.hashString(email, UTF_8).asInt(), shards.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private UserRepository shardOf(String email) {
+        return shards.get(shardIndexOf(email));
+    }
+
+    private UserRepository shardOfSeq(Long seq, String operation) {
+        int shard = seq == null ? -1 : shardOfSeq(seq);
+        if (shard < 0 || shard >= shards.size())
+            throw new EmptyResultDataAccessException(operation + " found no shard for seq " + seq, 1);
+        return shards.get(shard);
+    }
+
+    private static int shardOfSeq(long seq) {
+        return seq < 1 ? -1 : (int) ((seq - 1) / SEQ_RANGE);
+    }
+
+    /**
+     * 모든 샤드에 동시에 호출하고 샤드 순서대로 결과를 모은다.
+     */
+    private <T> List<T> fanOut(Function<UserRepository, T> call) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (UserRepository shard : shards)
+            futures.add(CompletableFuture.supplyAsync(() -> call.apply(shard), executor));
+
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            for (CompletableFuture<T> future : futures)
+                results.add(future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        return results;
+    }
+
+    private static <T> List<T> concat(List<List<T>> lists) {
+        List<T> all = new ArrayList<>(lists.stream().mapToInt(List::size).sum());
+        lists.forEach(all::addAll);
+        return all;
+    }
+}
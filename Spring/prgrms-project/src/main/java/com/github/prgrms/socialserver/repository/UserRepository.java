@@ -1,10 +1,18 @@
 package com.github.prgrms.socialserver.repository;
 
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
 import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
 import org.springframework.dao.DataAccessException;
 
 import javax.validation.Valid;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserRepository {
 
@@ -12,10 +20,53 @@ public interface UserRepository {
 
     List<User> findAll() throws DataAccessException;
 
+    /**
+     * seq 가 cursor 보다 큰 사용자를 seq 오름차순으로 최대 limit 건 조회한다. (keyset pagination)
+     */
+    List<User> findAll(long cursor, int limit) throws DataAccessException;
+
+    /**
+     * 전체 사용자를 seq 오름차순으로 한 건씩 consumer 에 넘긴다.
+     * 목록을 메모리에 모으지 않으므로 테이블 크기와 상관없이 메모리 사용량이 일정하다.
+     */
+    void streamAll(Consumer<User> consumer) throws DataAccessException;
+
     User findOne(Long seq) throws DataAccessException;
 
+    /**
+     * seqs 에 해당하는 사용자를 한 번의 IN 조회로 읽어 seq 오름차순으로 반환한다. 없는 seq 는 건너뛴다.
+     */
+    List<User> findAllBySeq(Collection<Long> seqs) throws DataAccessException;
+
+    /**
+     * fields 에 해당하는 컬럼만 읽는 projection 조회. seq 는 cursor 계산을 위해 항상 읽는다.
+     */
+    List<UserProjection> findAll(long cursor, int limit, Set<UserField> fields) throws DataAccessException;
+
+    void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException;
+
+    UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException;
+
+    Optional<User> findByEmail(Email email) throws DataAccessException;
+
     User save(@Valid User user) throws DataAccessException;
 
+    /**
+     * 여러 사용자를 batch insert 로 저장한다.
+     * 반환 목록은 입력과 같은 순서이며, 저장에 실패한 사용자(이메일 중복)는 seq 가 null 이다.
+     */
+    List<User> saveAll(List<User> users) throws DataAccessException;
+
+    /**
+     * 사용자별 로그인 횟수 증가분을 한 번의 batch update 로 반영한다.
+     */
+    void increaseLoginCounts(List<LoginCount> loginCounts) throws DataAccessException;
+
+    /**
+     * 저장된 비밀번호 해시를 바꾼다. 로그인 시 해시 cost 가 바뀐 사용자를 재해시할 때 쓴다.
+     */
+    void updatePassword(long seq, String passwd) throws DataAccessException;
+
     void delete(String email) throws DataAccessException;
 
 }
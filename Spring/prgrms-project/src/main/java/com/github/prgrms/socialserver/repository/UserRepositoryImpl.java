@@ -1,8 +1,21 @@
 package com.github.prgrms.socialserver.repository;
 
 import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
 import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import com.github.prgrms.socialserver.metrics.QueryMetrics;
+import com.google.common.collect.Lists;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -10,60 +23,190 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.sql.DataSource;
 import javax.validation.Valid;
+import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
-import java.util.List;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 import static com.github.prgrms.socialserver.util.DateTimeUtils.dateTimeOf;
 import static com.github.prgrms.socialserver.util.DateTimeUtils.timestampOf;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toList;
 
 @Repository
+@Qualifier("userStore")
+@Profile("!memory & !sharded")
 @Transactional(readOnly = true)
 public class UserRepositoryImpl implements UserRepository {
 
+    private static final String INSERT_QUERY =
+            "insert into users (seq ,email, passwd, login_count, last_login_at, create_at)" +
+                    " values(null, ?, ?, ?, ?, ?)";
+
     private final JdbcTemplate jdbcTemplate;
 
-    public UserRepositoryImpl (JdbcTemplate jdbcTemplate) {
+    private final int batchChunkSize;
+
+    private final int streamFetchSize;
+
+    private final QueryMetrics existsByEmailMetrics;
+
+    private final QueryMetrics findAllMetrics;
+
+    private final QueryMetrics findPageMetrics;
+
+    private final QueryMetrics streamAllMetrics;
+
+    private final QueryMetrics findOneMetrics;
+
+    private final QueryMetrics findAllBySeqMetrics;
+
+    private final QueryMetrics findPageProjectedMetrics;
+
+    private final QueryMetrics streamAllProjectedMetrics;
+
+    private final QueryMetrics findOneProjectedMetrics;
+
+    private final QueryMetrics findByEmailMetrics;
+
+    private final QueryMetrics insertMetrics;
+
+    private final QueryMetrics batchInsertMetrics;
+
+    private final QueryMetrics increaseLoginCountsMetrics;
+
+    private final QueryMetrics updatePasswordMetrics;
+
+    private final QueryMetrics deleteMetrics;
+
+    public UserRepositoryImpl (JdbcTemplate jdbcTemplate,
+                               MetricsRegistry metricsRegistry,
+                               @Value("${users.batch.chunk-size:500}") int batchChunkSize,
+                               @Value("${users.stream.fetch-size:500}") int streamFetchSize) {
+        checkArgument(batchChunkSize > 0, "batchChunkSize must be positive.");
+        checkArgument(streamFetchSize > 0, "streamFetchSize must be positive.");
+
         this.jdbcTemplate = jdbcTemplate;
+        this.batchChunkSize = batchChunkSize;
+        this.streamFetchSize = streamFetchSize;
+        this.existsByEmailMetrics = metricsRegistry.query("users.existsByEmail");
+        this.findAllMetrics = metricsRegistry.query("users.findAll");
+        this.findPageMetrics = metricsRegistry.query("users.findPage");
+        this.streamAllMetrics = metricsRegistry.query("users.streamAll");
+        this.findOneMetrics = metricsRegistry.query("users.findOne");
+        this.findAllBySeqMetrics = metricsRegistry.query("users.findAllBySeq");
+        this.findPageProjectedMetrics = metricsRegistry.query("users.findPageProjected");
+        this.streamAllProjectedMetrics = metricsRegistry.query("users.streamAllProjected");
+        this.findOneProjectedMetrics = metricsRegistry.query("users.findOneProjected");
+        this.findByEmailMetrics = metricsRegistry.query("users.findByEmail");
+        this.insertMetrics = metricsRegistry.query("users.insert");
+        this.batchInsertMetrics = metricsRegistry.query("users.batchInsert");
+        this.increaseLoginCountsMetrics = metricsRegistry.query("users.increaseLoginCounts");
+        this.updatePasswordMetrics = metricsRegistry.query("users.updatePassword");
+        this.deleteMetrics = metricsRegistry.query("users.delete");
     }
 
 
     @Override
     public boolean existsByEmail(String principal) {
-        if (jdbcTemplate.queryForObject("SELECT email FROM USERS WHERE email=?", userRowMapper(), principal) != null)
-            return true;
-        return false;
+        Integer count = timed(existsByEmailMetrics,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM USERS WHERE email=?", Integer.class, principal),
+                result -> 1);
+        return count != null && count > 0;
     }
 
     @Override
     public List<User> findAll() throws DataAccessException {
-        List<User> users = jdbcTemplate.query("SELECT * from USERS", userRowMapper());
-        return users;
+        return timed(findAllMetrics, () -> jdbcTemplate.query("SELECT * from USERS", userRowMapper()), List::size);
+    }
+
+    @Override
+    public List<User> findAll(long cursor, int limit) throws DataAccessException {
+        return timed(findPageMetrics,
+                () -> jdbcTemplate.query("SELECT * FROM USERS WHERE SEQ > ? ORDER BY SEQ LIMIT ?", userRowMapper(), cursor, limit),
+                List::size);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) throws DataAccessException {
+        RowMapper<User> rowMapper = userRowMapper();
+        timed(streamAllMetrics, () -> stream("SELECT * FROM USERS ORDER BY SEQ", rowMapper, consumer));
     }
 
     @Override
     public User findOne(Long seq) throws DataAccessException {
-        return (User)jdbcTemplate.queryForObject("SELECT * FROM USERS WHERE SEQ=?", userRowMapper(), seq);
+        return timed(findOneMetrics,
+                () -> jdbcTemplate.queryForObject("SELECT * FROM USERS WHERE SEQ=?", userRowMapper(), seq),
+                user -> 1);
+    }
+
+    /**
+     * seq 를 정렬, 중복 제거한 뒤 batchChunkSize 개씩 IN 조회한다.
+     */
+    @Override
+    public List<User> findAllBySeq(Collection<Long> seqs) throws DataAccessException {
+        List<Long> sorted = seqs.stream().filter(Objects::nonNull).distinct().sorted().collect(toList());
+        return timed(findAllBySeqMetrics, () -> {
+            List<User> users = new ArrayList<>(sorted.size());
+            for (List<Long> chunk : Lists.partition(sorted, batchChunkSize)) {
+                users.addAll(jdbcTemplate.query("SELECT * FROM USERS WHERE SEQ IN (" + placeholders(chunk.size()) + ") ORDER BY SEQ",
+                        userRowMapper(), chunk.toArray()));
+            }
+            return users;
+        }, List::size);
+    }
+
+    @Override
+    public List<UserProjection> findAll(long cursor, int limit, Set<UserField> fields) throws DataAccessException {
+        return timed(findPageProjectedMetrics,
+                () -> jdbcTemplate.query(
+                        "SELECT " + columnsOf(fields) + " FROM USERS WHERE SEQ > ? ORDER BY SEQ LIMIT ?",
+                        projectionRowMapper(fields), cursor, limit),
+                List::size);
+    }
+
+    @Override
+    public void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException {
+        RowMapper<UserProjection> rowMapper = projectionRowMapper(fields);
+        String sql = "SELECT " + columnsOf(fields) + " FROM USERS ORDER BY SEQ";
+        timed(streamAllProjectedMetrics, () -> stream(sql, rowMapper, consumer));
+    }
+
+    @Override
+    public UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException {
+        return timed(findOneProjectedMetrics,
+                () -> jdbcTemplate.queryForObject(
+                        "SELECT " + columnsOf(fields) + " FROM USERS WHERE SEQ=?", projectionRowMapper(fields), seq),
+                user -> 1);
+    }
+
+    @Override
+    public Optional<User> findByEmail(Email email) throws DataAccessException {
+        return timed(findByEmailMetrics,
+                () -> jdbcTemplate.query("SELECT * FROM USERS WHERE EMAIL=?", userRowMapper(), email.getAddress()),
+                List::size)
+                .stream()
+                .findFirst();
     }
 
 
     @Override
     @Transactional(readOnly = false)
     public User save(@Valid User user) throws DataAccessException {
-        final String query =
-                "insert into users (seq ,email, passwd, login_count, last_login_at, create_at)" +
-                        " values(null, ?, ?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(conn ->{
-            PreparedStatement ps = conn.prepareStatement(query, new String[]{"seq"});
-            ps.setString(1, user.getEmail().getAddress());
-            ps.setString(2, user.getPasswd());
-            ps.setInt(3, user.getLogin_count());
-            ps.setTimestamp(4, timestampOf(user.getLast_login_at().orElse(null)));
-            ps.setTimestamp(5, timestampOf(user.getCreate_at()));
+        timed(insertMetrics, () -> jdbcTemplate.update(conn ->{
+            PreparedStatement ps = conn.prepareStatement(INSERT_QUERY, new String[]{"seq"});
+            bindInsert(ps, user);
             return ps;
-        }, keyHolder);
+        }, keyHolder));
 
         Number key = keyHolder.getKey();
         long generatedSeq= key != null ? key.longValue() : -1;
@@ -72,13 +215,259 @@ public class UserRepositoryImpl implements UserRepository {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = false)
+    public List<User> saveAll(List<User> users) throws DataAccessException {
+        Map<String, Long> generatedSeqs = new HashMap<>();
+        Set<String> requested = new HashSet<>();
+        for (List<User> chunk : Lists.partition(users, batchChunkSize)) {
+            List<User> candidates = new ArrayList<>(chunk.size());
+            Set<String> existing = findExistingEmails(chunk);
+            for (User user : chunk) {
+                String address = user.getEmail().getAddress();
+                if (!existing.contains(address) && requested.add(address))
+                    candidates.add(user);
+            }
+            generatedSeqs.putAll(findSeqsByEmails(insertChunk(candidates)));
+        }
+
+        return users.stream()
+                .map(user -> new User.Builder(user)
+                        .seq(generatedSeqs.remove(user.getEmail().getAddress()))
+                        .build())
+                .collect(toList());
+    }
+
+    @Override
+    @Transactional(readOnly = false)
+    public void increaseLoginCounts(List<LoginCount> loginCounts) throws DataAccessException {
+        timed(increaseLoginCountsMetrics, () -> sum(jdbcTemplate.batchUpdate(
+                "UPDATE users SET login_count = login_count + ?," +
+                        " last_login_at = CASE WHEN last_login_at IS NULL OR last_login_at < ? THEN ? ELSE last_login_at END" +
+                        " WHERE seq = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        LoginCount loginCount = loginCounts.get(i);
+                        ps.setInt(1, loginCount.getCount());
+                        ps.setTimestamp(2, timestampOf(loginCount.getLastLoginAt()));
+                        ps.setTimestamp(3, timestampOf(loginCount.getLastLoginAt()));
+                        ps.setLong(4, loginCount.getSeq());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return loginCounts.size();
+                    }
+                })));
+    }
+
+    @Override
+    @Transactional(readOnly = false)
+    public void updatePassword(long seq, String passwd) throws DataAccessException {
+        timed(updatePasswordMetrics, () -> jdbcTemplate.update("UPDATE USERS SET PASSWD = ? WHERE SEQ = ?", passwd, seq));
+    }
+
     @Override
     @Transactional(readOnly = false)
     public void delete(String email) throws DataAccessException {
-        this.jdbcTemplate.update("DELETE FROM USERS WHERE EMAIL = ?", email);
+        timed(deleteMetrics, () -> this.jdbcTemplate.update("DELETE FROM USERS WHERE EMAIL = ?", email));
+    }
+
+    /**
+     * query 를 실행하고 걸린 시간과 읽거나 바꾼 행 수를 기록한다. DataAccessException 은 오류로 기록하고 다시 던진다.
+     * 단건 조회에 결과가 없는 것(EmptyResultDataAccessException)은 오류가 아니라 0 행으로 기록한다.
+     */
+    private static <T> T timed(QueryMetrics metrics, Supplier<T> query, ToLongFunction<? super T> rows) {
+        long start = System.nanoTime();
+        try {
+            T result = query.get();
+            metrics.record(System.nanoTime() - start, rows.applyAsLong(result));
+            return result;
+        } catch (EmptyResultDataAccessException e) {
+            metrics.record(System.nanoTime() - start, 0);
+            throw e;
+        } catch (DataAccessException e) {
+            metrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * 처리한 행 수를 돌려주는 update 나 stream 용.
+     */
+    private static void timed(QueryMetrics metrics, LongSupplier statement) {
+        timed(metrics, statement::getAsLong, Long::longValue);
+    }
+
+    /**
+     * 결과를 모으지 않고 한 행씩 consumer 에 넘긴다. 넘긴 행 수를 반환한다.
+     */
+    private <T> long stream(String sql, RowMapper<T> rowMapper, Consumer<T> consumer) {
+        long[] rows = new long[1];
+        jdbcTemplate.query(conn -> {
+            PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            return ps;
+        }, rs -> {
+            consumer.accept(rowMapper.mapRow(rs, rs.getRow()));
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    /**
+     * batch insert 후 실제로 저장된 이메일 목록을 반환한다.
+     * 동시 가입으로 unique 제약이 깨진 행은 BatchUpdateException 의 update count 로 찾아 제외한다.
+     * JdbcTemplate 이 예외를 변환하면 BatchUpdateException 이 cause 에 남지 않으므로 커넥션에서 직접 실행한다.
+     */
+    private List<String> insertChunk(List<User> chunk) {
+        if (chunk.isEmpty())
+            return Collections.emptyList();
+
+        long start = System.nanoTime();
+        int[] updateCounts;
+        try {
+            updateCounts = jdbcTemplate.execute((ConnectionCallback<int[]>) conn -> {
+                // update count 를 주지 않는 드라이버면 savepoint 로 되돌린 뒤 한 행씩 다시 넣는다.
+                Savepoint savepoint = conn.getAutoCommit() ? null : conn.setSavepoint();
+                try (PreparedStatement ps = conn.prepareStatement(INSERT_QUERY)) {
+                    for (User user : chunk) {
+                        bindInsert(ps, user);
+                        ps.addBatch();
+                    }
+                    try {
+                        ps.executeBatch();
+                        return null;
+                    } catch (BatchUpdateException e) {
+                        if (!isIntegrityViolation(e))
+                            throw e;
+                        if (e.getUpdateCounts() != null && e.getUpdateCounts().length > 0)
+                            return e.getUpdateCounts();
+                        if (savepoint == null)
+                            throw e;
+                        conn.rollback(savepoint);
+                        savepoint = null;
+                        return new int[0];
+                    }
+                } finally {
+                    if (savepoint != null)
+                        conn.releaseSavepoint(savepoint);
+                }
+            });
+        } catch (DataAccessException e) {
+            batchInsertMetrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+
+        if (updateCounts == null) {
+            batchInsertMetrics.record(System.nanoTime() - start, chunk.size());
+            return chunk.stream().map(user -> user.getEmail().getAddress()).collect(toList());
+        }
+        batchInsertMetrics.recordError(System.nanoTime() - start);
+        if (updateCounts.length == 0)
+            return insertOneByOne(chunk);
+
+        // 실패한 행 뒤로도 계속 실행하는 드라이버(H2, MySQL)는 모든 행의 결과를, 멈추는 드라이버는 실패한 행 앞까지의 결과를 준다.
+        List<String> inserted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < updateCounts.length && i < chunk.size(); i++) {
+            if (updateCounts[i] != Statement.EXECUTE_FAILED)
+                inserted.add(chunk.get(i).getEmail().getAddress());
+        }
+        if (updateCounts.length + 1 < chunk.size())
+            inserted.addAll(insertChunk(chunk.subList(updateCounts.length + 1, chunk.size())));
+        return inserted;
     }
 
-    private static RowMapper<User> userRowMapper() {
+    private List<String> insertOneByOne(List<User> chunk) {
+        List<String> inserted = new ArrayList<>(chunk.size());
+        for (User user : chunk) {
+            try {
+                jdbcTemplate.update(INSERT_QUERY, ps -> bindInsert(ps, user));
+                inserted.add(user.getEmail().getAddress());
+            } catch (DuplicateKeyException ignored) {
+            }
+        }
+        return inserted;
+    }
+
+    private Set<String> findExistingEmails(List<User> users) {
+        List<String> addresses = users.stream().map(user -> user.getEmail().getAddress()).collect(toList());
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT email FROM USERS WHERE email IN (" + placeholders(addresses.size()) + ")",
+                String.class, addresses.toArray()));
+    }
+
+    private Map<String, Long> findSeqsByEmails(List<String> addresses) {
+        Map<String, Long> seqs = new HashMap<>();
+        if (addresses.isEmpty())
+            return seqs;
+
+        jdbcTemplate.query(
+                "SELECT seq, email FROM USERS WHERE email IN (" + placeholders(addresses.size()) + ")",
+                rs -> {
+                    seqs.put(rs.getString("email"), rs.getLong("seq"));
+                }, addresses.toArray());
+        return seqs;
+    }
+
+    private static long sum(int[] rows) {
+        long sum = 0;
+        for (int row : rows)
+            sum += Math.max(row, 0);
+        return sum;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * unique 제약 위반(SQLState 23xxx)인지 next exception 까지 확인한다.
+     */
+    private static boolean isIntegrityViolation(SQLException e) {
+        for (SQLException cause = e; cause != null; cause = cause.getNextException()) {
+            if (cause.getSQLState() != null && cause.getSQLState().startsWith("23"))
+                return true;
+        }
+        return false;
+    }
+
+
+    private static void bindInsert(PreparedStatement ps, User user) throws SQLException {
+        ps.setString(1, user.getEmail().getAddress());
+        ps.setString(2, user.getPasswd());
+        ps.setInt(3, user.getLogin_count());
+        ps.setTimestamp(4, timestampOf(user.getLast_login_at().orElse(null)));
+        ps.setTimestamp(5, timestampOf(user.getCreate_at()));
+    }
+
+    /**
+     * 컬럼명은 UserField 에서만 오므로 그대로 SQL 에 붙여도 안전하다.
+     */
+    private static String columnsOf(Set<UserField> fields) {
+        StringBuilder columns = new StringBuilder(UserField.SEQ.getColumn());
+        for (UserField field : fields) {
+            if (field != UserField.SEQ)
+                columns.append(", ").append(field.getColumn());
+        }
+        return columns.toString();
+    }
+
+    static RowMapper<UserProjection> projectionRowMapper(Set<UserField> fields) {
+        boolean email = fields.contains(UserField.EMAIL);
+        boolean loginCount = fields.contains(UserField.LOGIN_COUNT);
+        boolean lastLoginAt = fields.contains(UserField.LAST_LOGIN_AT);
+        boolean createAt = fields.contains(UserField.CREATE_AT);
+        return (rs, rowNum) -> new UserProjection(fields,
+                rs.getLong("seq"),
+                email ? new Email(rs.getString("email")) : null,
+                loginCount ? rs.getInt("login_count") : 0,
+                lastLoginAt ? dateTimeOf(rs.getTimestamp("last_login_at")) : null,
+                createAt ? dateTimeOf(rs.getTimestamp("create_at")) : null);
+    }
+
+    static RowMapper<User> userRowMapper() {
         return (rs, rowNum) -> {
             User user = new User.Builder()
                     .seq(rs.getLong("seq"))
@@ -93,4 +482,3 @@ public class UserRepositoryImpl implements UserRepository {
     }
 }
 
-
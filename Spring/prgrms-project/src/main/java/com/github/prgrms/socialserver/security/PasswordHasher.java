@@ -0,0 +1,168 @@
+package com.github.prgrms.socialserver.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * PBKDF2(HmacSHA256) 로 비밀번호를 해시한다. 반복 횟수는 2^cost 이다.
+ * 저장 형식은 pbkdf2$cost$salt$hash 이고, 이 형식이 아닌 값은 해시 도입 전의 평문으로 본다.
+ *
+ * 해시 계산은 요청 스레드가 아닌 전용 스레드 풀에서 수행한다. 대기열이 가득 차면 바로
+ * PasswordHasherBusyException 을 던져, 가입 폭주가 CPU 를 모두 점유하며 대기열이 무한히 쌓이지 않게 한다.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final String PREFIX = "pbkdf2";
+
+    private static final int SALT_BYTES = 16;
+
+    private static final int HASH_BITS = 256;
+
+    private static final int MIN_COST = 4;
+
+    private static final int MAX_COST = 24;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final int cost;
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(@Value("${users.password.cost:16}") int cost,
+                          @Value("${users.password.threads:0}") int threads,
+                          @Value("${users.password.queue-capacity:256}") int queueCapacity) {
+        checkArgument(cost >= MIN_COST && cost <= MAX_COST, "cost must be between " + MIN_COST + " and " + MAX_COST + ".");
+        checkArgument(threads >= 0, "threads must not be negative.");
+        checkArgument(queueCapacity > 0, "queueCapacity must be positive.");
+
+        int poolSize = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        AtomicInteger sequence = new AtomicInteger();
+        this.cost = cost;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 해시 풀에서 password 를 해시한다.
+     */
+    public CompletableFuture<String> hash(String password) {
+        return submit(() -> encode(password));
+    }
+
+    /**
+     * 해시 풀에서 task 를 실행한다. 검증과 재해시처럼 CPU 를 쓰는 작업을 한 번에 넘길 때 쓴다.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHasherBusyException(executor.getQueue().size());
+        }
+    }
+
+    public String encode(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return PREFIX + "$" + cost + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(pbkdf2(password, salt, cost));
+    }
+
+    /**
+     * encoded 가 password 의 해시인지 상수 시간에 비교한다. 해시 형식이 아니면 평문과 비교한다.
+     */
+    public boolean matches(String password, String encoded) {
+        String[] parts = split(encoded);
+        if (parts == null)
+            return MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8), encoded.getBytes(StandardCharsets.UTF_8));
+
+        byte[] expected = DECODER.decode(parts[3]);
+        return MessageDigest.isEqual(expected, pbkdf2(password, DECODER.decode(parts[2]), Integer.parseInt(parts[1])));
+    }
+
+    /**
+     * 평문이거나 지금 설정과 다른 cost 로 해시된 값이면 true.
+     */
+    public boolean needsRehash(String encoded) {
+        String[] parts = split(encoded);
+        return parts == null || Integer.parseInt(parts[1]) != cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public int poolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getCompleted() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static String[] split(String encoded) {
+        if (encoded == null || !encoded.startsWith(PREFIX + "$"))
+            return null;
+        String[] parts = encoded.split("\\$");
+        return parts.length == 4 ? parts : null;
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int cost) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, 1 << cost, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
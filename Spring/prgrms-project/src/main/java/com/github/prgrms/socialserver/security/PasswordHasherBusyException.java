@@ -0,0 +1,15 @@
+package com.github.prgrms.socialserver.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 비밀번호 해시 대기열이 가득 차서 요청을 받지 않았을 때 던진다.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHasherBusyException extends RuntimeException {
+
+    public PasswordHasherBusyException(int queueDepth) {
+        super("Password hashing queue is full (" + queueDepth + " waiting). Try again later.");
+    }
+}
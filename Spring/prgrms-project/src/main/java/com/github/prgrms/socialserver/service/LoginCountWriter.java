@@ -0,0 +1,141 @@
+package com.github.prgrms.socialserver.service;
+
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 로그인 성공을 사용자별로 모아 두었다가 주기적으로 batch update 하는 write-behind 컴포넌트.
+ *
+ * 증가분은 seq 별 엔트리에 ConcurrentHashMap.compute 로 누적되므로 같은 bin 의 사용자끼리만 경쟁한다.
+ * flush 는 엔트리를 remove 한 뒤에 값을 읽기 때문에 flush 중에 들어온 로그인은 새 엔트리에 쌓인다.
+ * 한 번의 flush 는 최대 maxBatchSize 명만 반영하고, 실패한 증가분은 다시 누적된다.
+ * 주기마다 flush 를 맵이 빌 때까지, 또는 한 주기(flushIntervalMillis)가 지날 때까지 반복해 로그인이 주기당 maxBatchSize 명을 넘어도 밀리지 않게 한다.
+ */
+@Component
+public class LoginCountWriter {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentHashMap<Long, Pending> pendings = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    private final int maxBatchSize;
+
+    private final long flushBudgetNanos;
+
+    private final ScheduledExecutorService scheduler;
+
+    public LoginCountWriter(UserRepository userRepository,
+                            @Value("${users.login-count.flush-interval-millis:1000}") long flushIntervalMillis,
+                            @Value("${users.login-count.max-batch-size:1000}") int maxBatchSize) {
+        checkArgument(flushIntervalMillis > 0, "flushIntervalMillis must be positive.");
+        checkArgument(maxBatchSize > 0, "maxBatchSize must be positive.");
+
+        this.userRepository = userRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.flushBudgetNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-count-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(long seq, LocalDateTime loginAt) {
+        pendings.compute(seq, (key, pending) -> {
+            if (pending == null)
+                pending = new Pending();
+            pending.count++;
+            if (pending.lastLoginAt == null || pending.lastLoginAt.isBefore(loginAt))
+                pending.lastLoginAt = loginAt;
+            return pending;
+        });
+    }
+
+    /**
+     * 최대 maxBatchSize 명의 증가분을 DB 에 반영하고, 반영한 사용자 수를 반환한다.
+     */
+    public int flush() {
+        List<LoginCount> loginCounts = new ArrayList<>(Math.min(maxBatchSize, pendings.size()));
+        Iterator<Long> seqs = pendings.keySet().iterator();
+        while (seqs.hasNext() && loginCounts.size() < maxBatchSize) {
+            Long seq = seqs.next();
+            Pending pending = pendings.remove(seq);
+            if (pending != null)
+                loginCounts.add(new LoginCount(seq, pending.count, pending.lastLoginAt));
+        }
+        if (loginCounts.isEmpty())
+            return 0;
+
+        try {
+            userRepository.increaseLoginCounts(loginCounts);
+        } catch (DataAccessException e) {
+            loginCounts.forEach(this::restore);
+            throw e;
+        }
+        return loginCounts.size();
+    }
+
+    public int pendingCount() {
+        return pendings.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+
+        try {
+            while (!pendings.isEmpty())
+                flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush login counts on shutdown, dropping {} users: {}", pendings.size(), e.getMessage(), e);
+        }
+    }
+
+    private void flushSafely() {
+        long deadline = System.nanoTime() + flushBudgetNanos;
+        try {
+            do {
+                flush();
+            } while (!pendings.isEmpty() && System.nanoTime() < deadline);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush login counts, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private void restore(LoginCount loginCount) {
+        pendings.compute(loginCount.getSeq(), (key, pending) -> {
+            if (pending == null)
+                pending = new Pending();
+            pending.count += loginCount.getCount();
+            if (pending.lastLoginAt == null || pending.lastLoginAt.isBefore(loginCount.getLastLoginAt()))
+                pending.lastLoginAt = loginCount.getLastLoginAt();
+            return pending;
+        });
+    }
+
+    private static class Pending {
+        private int count;
+        private LocalDateTime lastLoginAt;
+    }
+}
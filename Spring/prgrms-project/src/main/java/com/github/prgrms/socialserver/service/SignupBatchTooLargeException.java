@@ -0,0 +1,13 @@
+package com.github.prgrms.socialserver.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** 한 번에 가입시키려는 사용자 수가 허용치를 넘었을 때 던진다. */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class SignupBatchTooLargeException extends IllegalArgumentException {
+
+    public SignupBatchTooLargeException(int size, int maxSize) {
+        super("Cannot sign up " + size + " users at once. At most " + maxSize + " are allowed.");
+    }
+}
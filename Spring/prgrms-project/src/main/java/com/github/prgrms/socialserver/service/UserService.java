@@ -1,18 +1,59 @@
 package com.github.prgrms.socialserver.service;
 
+import com.github.prgrms.socialserver.controller.SignupRequest;
 import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.SignupResult;
 import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserPage;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.domain.UserSearchPage;
 import org.springframework.dao.DataAccessException;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     List<User> findAll() throws DataAccessException;
 
+    UserPage<User> findAll(Long cursor, int limit) throws DataAccessException;
+
+    UserPage<UserProjection> findAll(Long cursor, int limit, Set<UserField> fields) throws DataAccessException;
+
+    void streamAll(Consumer<User> consumer) throws DataAccessException;
+
+    void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException;
+
     User findOne(Long seq) throws DataAccessException;
 
-    User save(Email email, String password) throws DataAccessException;
+    UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException;
+
+    /**
+     * 여러 사용자를 한 번에 조회한다. 요청한 순서대로 반환하며 없는 seq 는 건너뛴다.
+     */
+    List<User> findAllBySeq(List<Long> seqs) throws DataAccessException;
+
+    List<UserProjection> findAllBySeq(List<Long> seqs, Set<UserField> fields) throws DataAccessException;
+
+    /**
+     * 이메일 prefix 나 도메인으로 사용자를 찾는다. DB 를 조회하지 않고 메모리 색인만 본다.
+     */
+    UserSearchPage search(String prefix, String domain, String cursor, int limit);
+
+    /**
+     * 비밀번호 해시는 해시 전용 스레드에서 계산하고 저장은 저장 전용 스레드에서 한다. 저장까지 끝나면 완료되는 future 를 반환한다.
+     */
+    CompletableFuture<User> save(Email email, String password) throws DataAccessException;
+
+    /**
+     * 비밀번호 검증과 (cost 가 바뀐 경우의) 재해시 계산은 해시 전용 스레드에서, 재해시 저장은 저장 전용 스레드에서 수행한다.
+     */
+    CompletableFuture<User> login(Email email, String password) throws DataAccessException;
+
+    List<SignupResult> saveAll(List<SignupRequest> signupRequests) throws DataAccessException;
 
     void delete(String email) throws DataAccessException;
 }
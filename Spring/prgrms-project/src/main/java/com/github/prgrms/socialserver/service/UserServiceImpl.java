@@ -1,24 +1,110 @@
 package com.github.prgrms.socialserver.service;
 
+import com.github.prgrms.socialserver.controller.SignupRequest;
+import com.github.prgrms.socialserver.datasource.ReadYourWrites;
 import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.SignupResult;
 import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserPage;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.domain.UserSearchPage;
+import com.github.prgrms.socialserver.event.UserEventPublisher;
+import com.github.prgrms.socialserver.repository.EmailSearchUserRepository;
 import com.github.prgrms.socialserver.repository.UserRepository;
+import com.github.prgrms.socialserver.security.PasswordHasher;
+import com.github.prgrms.socialserver.security.PasswordHasherBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.validation.Valid;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 @Service
 public class UserServiceImpl implements UserService{
 
+    private static final int MAX_PAGE_LIMIT = 1000;
+
+    /**
+     * 대량 가입 한 건은 가입 허용 필터의 자리 하나만 차지하지만 이만큼의 해시를 만든다.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static final long BUSY_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long BUSY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
     private final UserRepository userRepository;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    private final LoginCountWriter loginCountWriter;
+
+    private final PasswordHasher passwordHasher;
+
+    private final EmailSearchUserRepository emailSearchUserRepository;
+
+    private final UserEventPublisher userEventPublisher;
+
+    /**
+     * 해시가 끝난 뒤의 저장처럼 DB 를 기다리는 후속 작업을 실행한다. 해시 스레드가 DB 를 기다리며 묶이지 않게 한다.
+     * 해시 대기열 자리는 해시가 끝나면 돌려주므로, DB 가 해시보다 느리면 저장이 쌓인다. 그래서 대기열을 따로 제한하고
+     * 가득 차면 UserWriterBusyException(503) 으로 그 요청만 실패시킨다.
+     */
+    private final ThreadPoolExecutor writer;
+
+    public UserServiceImpl(UserRepository userRepository,
+                           LoginCountWriter loginCountWriter,
+                           PasswordHasher passwordHasher,
+                           EmailSearchUserRepository emailSearchUserRepository,
+                           UserEventPublisher userEventPublisher,
+                           @Value("${users.write.threads:32}") int writeThreads,
+                           @Value("${users.write.queue-capacity:256}") int writeQueueCapacity) {
+        checkArgument(writeThreads > 0, "writeThreads must be positive.");
+        checkArgument(writeQueueCapacity > 0, "writeQueueCapacity must be positive.");
+
         this.userRepository = userRepository;
+        this.loginCountWriter = loginCountWriter;
+        this.passwordHasher = passwordHasher;
+        this.emailSearchUserRepository = emailSearchUserRepository;
+        this.userEventPublisher = userEventPublisher;
+        AtomicInteger sequence = new AtomicInteger();
+        this.writer = new ThreadPoolExecutor(writeThreads, writeThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-writer-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    throw new UserWriterBusyException(executor.getQueue().size());
+                });
     }
 
     @Override
@@ -27,6 +113,32 @@ public class UserServiceImpl implements UserService{
         return users;
     }
 
+    @Override
+    public UserPage<User> findAll(Long cursor, int limit) throws DataAccessException {
+        checkPage(cursor, limit);
+
+        List<User> users = userRepository.findAll(cursor == null ? 0L : cursor, limit + 1);
+        return pageOf(users, limit, User::getSeq);
+    }
+
+    @Override
+    public UserPage<UserProjection> findAll(Long cursor, int limit, Set<UserField> fields) throws DataAccessException {
+        checkPage(cursor, limit);
+
+        List<UserProjection> users = userRepository.findAll(cursor == null ? 0L : cursor, limit + 1, fields);
+        return pageOf(users, limit, UserProjection::getSeq);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) throws DataAccessException {
+        userRepository.streamAll(consumer);
+    }
+
+    @Override
+    public void streamAll(Set<UserField> fields, Consumer<UserProjection> consumer) throws DataAccessException {
+        userRepository.streamAll(fields, consumer);
+    }
+
     @Override
     public User findOne(Long seq) throws DataAccessException {
         User user = userRepository.findOne(seq);
@@ -34,19 +146,225 @@ public class UserServiceImpl implements UserService{
     }
 
     @Override
-    public User save(Email email, String password) throws DataAccessException {
+    public UserProjection findOne(Long seq, Set<UserField> fields) throws DataAccessException {
+        return userRepository.findOne(seq, fields);
+    }
+
+    @Override
+    public List<User> findAllBySeq(List<Long> seqs) throws DataAccessException {
+        checkArgument(seqs != null && !seqs.isEmpty(), "seq must be provided.");
+        checkArgument(seqs.size() <= MAX_PAGE_LIMIT, "seq must not have more than " + MAX_PAGE_LIMIT + " values.");
+
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllBySeq(seqs))
+            users.put(user.getSeq(), user);
+        return seqs.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    @Override
+    public List<UserProjection> findAllBySeq(List<Long> seqs, Set<UserField> fields) throws DataAccessException {
+        return findAllBySeq(seqs).stream()
+                .map(user -> UserProjection.of(user, fields))
+                .collect(toList());
+    }
+
+    @Override
+    public UserSearchPage search(String prefix, String domain, String cursor, int limit) {
+        return emailSearchUserRepository.search(prefix, domain, cursor, limit);
+    }
+
+    @Override
+    public CompletableFuture<User> save(Email email, String password) throws DataAccessException {
+        checkPassword(password);
+
+        Runnable markWrite = ReadYourWrites.writeMarker();
+        return passwordHasher.hash(password)
+                .thenApplyAsync(passwd -> {
+                    User saved = userRepository.save(new User(email, passwd));
+                    markWrite.run();
+                    userEventPublisher.created(saved);
+                    return saved;
+                }, writer);
+    }
+
+    @Override
+    public CompletableFuture<User> login(Email email, String password) throws DataAccessException {
         checkArgument(isNotEmpty(password), "password must be provided.");
-        checkArgument(
-                password.length() >= 4 && password.length() <= 15,
-                "password length must be between 4 and 15 characters."
-        );
 
-        User user = new User(email, password);
-        return userRepository.save(user);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid email or password."));
+        Runnable markWrite = ReadYourWrites.writeMarker();
+        return passwordHasher.submit(() -> {
+            if (!passwordHasher.matches(password, user.getPasswd()))
+                throw new IllegalArgumentException("Invalid email or password.");
+            return passwordHasher.needsRehash(user.getPasswd())
+                    ? Optional.of(passwordHasher.encode(password))
+                    : Optional.<String>empty();
+        }).thenApplyAsync(rehashed -> {
+            rehashed.ifPresent(passwd -> rehash(user, passwd, markWrite));
+            user.afterLoginSuccess();
+            loginCountWriter.record(user.getSeq(), user.getLast_login_at().get());
+            return user;
+        }, writer);
+    }
+
+    @Override
+    public List<SignupResult> saveAll(List<SignupRequest> signupRequests) throws DataAccessException {
+        checkArgument(signupRequests != null, "signupRequests must be provided.");
+        if (signupRequests.size() > MAX_BATCH_SIZE)
+            throw new SignupBatchTooLargeException(signupRequests.size(), MAX_BATCH_SIZE);
+
+        SignupResult[] results = new SignupResult[signupRequests.size()];
+        List<Integer> indexes = new ArrayList<>(signupRequests.size());
+
+        for (int i = 0; i < signupRequests.size(); i++) {
+            SignupRequest signupRequest = signupRequests.get(i);
+            try {
+                new Email(signupRequest.getPrincipal());
+                checkPassword(signupRequest.getCredentials());
+                indexes.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = SignupResult.failure(i, signupRequest.getPrincipal(), e.getMessage());
+            }
+        }
+
+        String[] passwds = hashAll(signupRequests, indexes, results);
+        List<User> users = new ArrayList<>(indexes.size());
+        List<Integer> hashed = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            if (passwds[index] == null)
+                continue;
+            users.add(new User(new Email(signupRequests.get(index).getPrincipal()), passwds[index]));
+            hashed.add(index);
+        }
+        indexes = hashed;
+
+        List<User> saved = userRepository.saveAll(users);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = indexes.get(i);
+            User user = saved.get(i);
+            String principal = user.getEmail().getAddress();
+            if (user.getSeq() != null) {
+                results[index] = SignupResult.success(index, principal, user.getSeq());
+                userEventPublisher.created(user);
+            } else {
+                results[index] = SignupResult.failure(index, principal, "이미 사용중인 이메일 입니다.");
+            }
+        }
+        return Arrays.asList(results);
     }
 
     @Override
     public void delete(String email) throws DataAccessException {
         userRepository.delete(email);
+        userEventPublisher.deleted(email);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 해시 풀 스레드 수의 두 배까지만 한 번에 넘기고, 가장 먼저 넘긴 해시가 끝나야 다음 행을 넘긴다.
+     * 대량 가입 하나가 해시 대기열을 채워 다른 가입과 로그인을 PasswordHasherBusyException 으로 밀어내지 않게 한다.
+     * 다른 요청 때문에 대기열이 차 있으면 넘긴 해시를 기다렸다 다시 넘기고, 넘긴 해시가 없으면 BUSY_RETRY_NANOS 동안
+     * 자리가 나기를 기다린다. 요청 스레드에서 직접 해시하지는 않는다.
+     * 해시에 실패했거나 끝내 자리를 얻지 못한 행은 그 행만 실패로 돌려주고 null 로 남긴다.
+     */
+    private String[] hashAll(List<SignupRequest> signupRequests, List<Integer> indexes, SignupResult[] results) {
+        int window = passwordHasher.poolSize() * 2;
+        String[] passwds = new String[signupRequests.size()];
+        Deque<PendingHash> inFlight = new ArrayDeque<>(window);
+
+        for (int index : indexes) {
+            String password = signupRequests.get(index).getCredentials();
+            while (inFlight.size() >= window)
+                inFlight.poll().await(signupRequests, passwds, results);
+            long busySince = 0;
+            while (true) {
+                try {
+                    inFlight.add(new PendingHash(index, passwordHasher.hash(password)));
+                    break;
+                } catch (PasswordHasherBusyException e) {
+                    if (!inFlight.isEmpty()) {
+                        inFlight.poll().await(signupRequests, passwds, results);
+                        continue;
+                    }
+                    if (busySince == 0)
+                        busySince = System.nanoTime();
+                    if (System.nanoTime() - busySince >= BUSY_RETRY_NANOS) {
+                        results[index] = SignupResult.failure(index, signupRequests.get(index).getPrincipal(), e.getMessage());
+                        break;
+                    }
+                    LockSupport.parkNanos(BUSY_BACKOFF_NANOS);
+                }
+            }
+        }
+        while (!inFlight.isEmpty())
+            inFlight.poll().await(signupRequests, passwds, results);
+        return passwds;
+    }
+
+    /**
+     * 재해시 실패는 로그인 실패가 아니다. 다음 로그인에서 다시 시도한다.
+     */
+    private void rehash(User user, String passwd, Runnable markWrite) {
+        try {
+            userRepository.updatePassword(user.getSeq(), passwd);
+            markWrite.run();
+        } catch (DataAccessException e) {
+            log.warn("Cannot rehash password of user {}: {}", user.getSeq(), e.getMessage());
+        }
+    }
+
+    private static void checkPage(Long cursor, int limit) {
+        checkArgument(cursor == null || cursor >= 0, "cursor must not be negative.");
+        checkArgument(limit >= 1 && limit <= MAX_PAGE_LIMIT, "limit must be between 1 and " + MAX_PAGE_LIMIT + ".");
+    }
+
+    /**
+     * limit + 1 건을 읽어 다음 페이지가 있는지 판단한다.
+     */
+    private static <T> UserPage<T> pageOf(List<T> users, int limit, ToLongFunction<T> seqOf) {
+        if (users.size() <= limit)
+            return new UserPage<>(users, null);
+
+        List<T> page = users.subList(0, limit);
+        return new UserPage<>(page, seqOf.applyAsLong(page.get(limit - 1)));
+    }
+
+    private static void checkPassword(String password) {
+        checkArgument(isNotEmpty(password), "password must be provided.");
+        checkArgument(
+                password.length() >= 4 && password.length() <= 15,
+                "password length must be between 4 and 15 characters."
+        );
+    }
+
+    private static class PendingHash {
+
+        private final int index;
+
+        private final CompletableFuture<String> passwd;
+
+        private PendingHash(int index, CompletableFuture<String> passwd) {
+            this.index = index;
+            this.passwd = passwd;
+        }
+
+        private void await(List<SignupRequest> signupRequests, String[] passwds, SignupResult[] results) {
+            try {
+                passwds[index] = passwd.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                results[index] = SignupResult.failure(index, signupRequests.get(index).getPrincipal(), cause.getMessage());
+            }
+        }
     }
 }
@@ -0,0 +1,15 @@
+package com.github.prgrms.socialserver.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 해시가 끝난 뒤의 저장 대기열이 가득 차서 저장을 받지 않았을 때 던진다.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UserWriterBusyException extends RuntimeException {
+
+    public UserWriterBusyException(int queueDepth) {
+        super("User write queue is full (" + queueDepth + " waiting). Try again later.");
+    }
+}
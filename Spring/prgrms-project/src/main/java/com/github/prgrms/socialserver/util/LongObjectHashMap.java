@@ -0,0 +1,149 @@
+package com.github.prgrms.socialserver.util;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * long 키를 boxing 하지 않는 open addressing(linear probing) 해시 맵.
+ * 키 0 은 빈 슬롯 표시로 쓰므로 저장할 수 없다. 동기화하지 않는다.
+ */
+public class LongObjectHashMap<V> {
+
+    private static final long EMPTY = 0L;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    private int mask;
+
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        checkArgument(expectedSize >= 0, "expectedSize must not be negative.");
+
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        checkKey(key);
+        for (int slot = slotOf(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == EMPTY)
+                return null;
+            if (keys[slot] == key)
+                return (V) values[slot];
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        checkKey(key);
+        checkArgument(value != null, "value must be provided.");
+
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR)
+            resize(keys.length << 1);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        checkKey(key);
+        int slot = slotOf(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY)
+                return null;
+            slot = (slot + 1) & mask;
+        }
+        V previous = (V) values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * 지운 슬롯 뒤에 이어진 엔트리들을 원래 자리 쪽으로 당겨 probe 체인이 끊기지 않게 한다.
+     */
+    private void shiftBack(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (keys[slot] == EMPTY)
+                break;
+            int home = slotOf(keys[slot]);
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY)
+                continue;
+            int slot = slotOf(oldKeys[i]);
+            while (keys[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        checkArgument(key != EMPTY, "key must not be 0.");
+    }
+}
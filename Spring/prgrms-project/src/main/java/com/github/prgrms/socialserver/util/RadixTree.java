@@ -0,0 +1,252 @@
+package com.github.prgrms.socialserver.util;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 문자열 키에 long 값을 매핑하는 path-compressed trie(radix tree).
+ * 자식은 첫 글자 순으로 정렬된 배열에 두므로 scan 은 키의 사전순으로 방문한다. 동기화하지 않는다.
+ */
+public class RadixTree {
+
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private static final char[] NO_FIRSTS = new char[0];
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("", ABSENT);
+
+    private int size;
+
+    /**
+     * scan 이 키마다 호출한다. false 를 반환하면 scan 을 멈춘다.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        boolean visit(CharSequence key, long value);
+    }
+
+    public void put(String key, long value) {
+        checkArgument(value != ABSENT, "value must not be Long.MIN_VALUE.");
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                node.insert(new Node(key.substring(i), value));
+                size++;
+                return;
+            }
+
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common), ABSENT);
+                child.label = child.label.substring(common);
+                split.insert(child);
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.value == ABSENT)
+            size++;
+        node.value = value;
+    }
+
+    public long get(String key, long defaultValue) {
+        Node node = find(key);
+        return node == null || node.value == ABSENT ? defaultValue : node.value;
+    }
+
+    public boolean remove(String key) {
+        Node parent = null;
+        Node grandParent = null;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0)
+                return false;
+            Node child = node.children[index];
+            if (!key.startsWith(child.label, i))
+                return false;
+            grandParent = parent;
+            parent = node;
+            node = child;
+            i += child.label.length();
+        }
+        if (node.value == ABSENT)
+            return false;
+
+        node.value = ABSENT;
+        size--;
+        if (node == root)
+            return true;
+
+        if (node.children.length == 0) {
+            parent.delete(node);
+            if (parent != root && parent.value == ABSENT && parent.children.length == 1)
+                grandParent.children[grandParent.indexOf(parent.label.charAt(0))] = parent.mergeWithOnlyChild();
+        } else if (node.children.length == 1) {
+            parent.children[parent.indexOf(node.label.charAt(0))] = node.mergeWithOnlyChild();
+        }
+        return true;
+    }
+
+    /**
+     * prefix 로 시작하고 after 보다 큰 키를 사전순으로 방문한다. after 가 null 이면 처음부터 방문한다.
+     * 방문 비용은 prefix 길이와 방문한 키 수에 비례한다.
+     */
+    public void scan(String prefix, String after, Visitor visitor) {
+        StringBuilder path = new StringBuilder(64);
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(i));
+            if (index < 0)
+                return;
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                collect(child, path, after, visitor);
+                return;
+            }
+            if (common < child.label.length())
+                return;
+            path.append(child.label);
+            i += common;
+            node = child;
+        }
+        collect(node, path, after, visitor);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean collect(Node node, StringBuilder path, String after, Visitor visitor) {
+        int length = path.length();
+        path.append(node.label);
+        try {
+            if (after != null) {
+                int compared = compareBounded(path, after);
+                if (compared < 0)
+                    return true;
+                if (compared > 0 || path.length() > after.length())
+                    after = null;
+            }
+            // after 가 남아 있으면 path 는 after 의 prefix 이므로 path <= after 이다.
+            if (node.value != ABSENT && after == null && !visitor.visit(path, node.value))
+                return false;
+            for (Node child : node.children) {
+                if (!collect(child, path, after, visitor))
+                    return false;
+            }
+            return true;
+        } finally {
+            path.setLength(length);
+        }
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0)
+                return null;
+            node = node.children[index];
+            if (!key.startsWith(node.label, i))
+                return null;
+            i += node.label.length();
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i))
+            i++;
+        return i;
+    }
+
+    /**
+     * 두 문자열의 짧은 쪽 길이까지만 비교한다.
+     */
+    private static int compareBounded(CharSequence path, String after) {
+        int max = Math.min(path.length(), after.length());
+        for (int i = 0; i < max; i++) {
+            int compared = Character.compare(path.charAt(i), after.charAt(i));
+            if (compared != 0)
+                return compared;
+        }
+        return 0;
+    }
+
+    private static final class Node {
+
+        private String label;
+
+        private long value;
+
+        private char[] firsts = NO_FIRSTS;
+
+        private Node[] children = NO_CHILDREN;
+
+        private Node(String label, long value) {
+            this.label = label;
+            this.value = value;
+        }
+
+        private int indexOf(char first) {
+            int index = Arrays.binarySearch(firsts, first);
+            return index >= 0 ? index : -1;
+        }
+
+        private void insert(Node child) {
+            int index = -(Arrays.binarySearch(firsts, child.label.charAt(0)) + 1);
+            char[] nextFirsts = new char[firsts.length + 1];
+            Node[] nextChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, nextFirsts, 0, index);
+            System.arraycopy(children, 0, nextChildren, 0, index);
+            nextFirsts[index] = child.label.charAt(0);
+            nextChildren[index] = child;
+            System.arraycopy(firsts, index, nextFirsts, index + 1, firsts.length - index);
+            System.arraycopy(children, index, nextChildren, index + 1, children.length - index);
+            firsts = nextFirsts;
+            children = nextChildren;
+        }
+
+        private void delete(Node child) {
+            int index = indexOf(child.label.charAt(0));
+            if (children.length == 1) {
+                firsts = NO_FIRSTS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] nextFirsts = new char[firsts.length - 1];
+            Node[] nextChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, nextFirsts, 0, index);
+            System.arraycopy(children, 0, nextChildren, 0, index);
+            System.arraycopy(firsts, index + 1, nextFirsts, index, firsts.length - index - 1);
+            System.arraycopy(children, index + 1, nextChildren, index, children.length - index - 1);
+            firsts = nextFirsts;
+            children = nextChildren;
+        }
+
+        /**
+         * 값이 없고 자식이 하나뿐인 노드를 자식과 합쳐 경로를 다시 압축한다.
+         */
+        private Node mergeWithOnlyChild() {
+            Node child = children[0];
+            child.label = label + child.label;
+            return child;
+        }
+    }
+}
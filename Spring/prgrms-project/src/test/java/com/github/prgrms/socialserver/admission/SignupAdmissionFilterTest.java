@@ -0,0 +1,146 @@
+package com.github.prgrms.socialserver.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+class SignupAdmissionFilterTest {
+
+    private static final String RATE_LIMITED_BODY =
+            "{\"status\":429,\"error\":\"Too Many Requests\",\"reason\":\"rate-limited\"}";
+
+    private static final String OVER_CAPACITY_BODY =
+            "{\"status\":429,\"error\":\"Too Many Requests\",\"reason\":\"over-capacity\"}";
+
+    private final JoinController controller = new JoinController();
+
+    @Test
+    void rateLimitsEachClientSeparately() throws Exception {
+        SignupAdmissionFilter filter = new SignupAdmissionFilter(0.5, 2, 10, 100, "X-Forwarded-For");
+        MockMvc mockMvc = mockMvc(filter);
+
+        for (int i = 0; i < 2; i++)
+            mockMvc.perform(login("10.0.0.1, 192.168.0.1")).andExpect(status().isOk());
+        mockMvc.perform(login("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(content().contentType("application/json"))
+                .andExpect(content().string(RATE_LIMITED_BODY));
+        mockMvc.perform(login("10.0.0.2")).andExpect(status().isOk());
+
+        assertThat(filter.getAdmitted()).isEqualTo(3);
+        assertThat(filter.getRateLimited()).isEqualTo(1);
+        assertThat(filter.trackedClients()).isEqualTo(2);
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    void doesNotFilterReads() throws Exception {
+        SignupAdmissionFilter filter = new SignupAdmissionFilter(1, 1, 1, 100, "");
+        MockMvc mockMvc = mockMvc(filter);
+
+        for (int i = 0; i < 3; i++)
+            mockMvc.perform(get("/api/users/join")).andExpect(status().isOk());
+
+        assertThat(filter.getAdmitted()).isZero();
+        assertThat(filter.trackedClients()).isZero();
+    }
+
+    /**
+     * /join 은 CompletableFuture 를 돌려주므로 컨트롤러가 반환해도 요청은 끝나지 않는다.
+     * 동시 처리 수는 응답이 실제로 끝날 때(ExitListener) 돌려받아야 한다.
+     */
+    @Test
+    void holdsConcurrencyUntilAsyncResponseCompletes() throws Exception {
+        SignupAdmissionFilter filter = new SignupAdmissionFilter(100, 100, 1, 100, "X-Forwarded-For");
+        MockMvc mockMvc = mockMvc(filter);
+
+        MvcResult pending = mockMvc.perform(join("10.0.0.1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(filter.inFlight()).isEqualTo(1);
+
+        mockMvc.perform(join("10.0.0.2"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().string(OVER_CAPACITY_BODY));
+        mockMvc.perform(login("10.0.0.3")).andExpect(status().isTooManyRequests());
+        assertThat(filter.getOverCapacity()).isEqualTo(2);
+
+        controller.result.complete("joined");
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().string("joined"));
+        assertThat(filter.inFlight()).isZero();
+
+        mockMvc.perform(login("10.0.0.2")).andExpect(status().isOk());
+        assertThat(filter.getAdmitted()).isEqualTo(2);
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    void releasesConcurrencyWhenAsyncResponseFails() throws Exception {
+        SignupAdmissionFilter filter = new SignupAdmissionFilter(100, 100, 1, 100, "X-Forwarded-For");
+        MockMvc mockMvc = mockMvc(filter);
+
+        MvcResult pending = mockMvc.perform(join("10.0.0.1")).andReturn();
+        controller.result.completeExceptionally(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isServiceUnavailable());
+
+        assertThat(filter.inFlight()).isZero();
+        mockMvc.perform(login("10.0.0.2")).andExpect(status().isOk());
+    }
+
+    private MockMvc mockMvc(SignupAdmissionFilter filter) {
+        return standaloneSetup(controller)
+                .addFilters(filter)
+                .build();
+    }
+
+    private static MockHttpServletRequestBuilder join(String client) {
+        return post("/api/users/join").header("X-Forwarded-For", client);
+    }
+
+    private static MockHttpServletRequestBuilder login(String client) {
+        return post("/api/users/login").header("X-Forwarded-For", client);
+    }
+
+    @RestController
+    static class JoinController {
+
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        @PostMapping("/api/users/join")
+        public CompletableFuture<String> join() {
+            return result;
+        }
+
+        @GetMapping("/api/users/join")
+        public String check() {
+            return "ok";
+        }
+
+        @PostMapping("/api/users/login")
+        public String login() {
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.prgrms.socialserver.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void admitsBurstThenRejectsUntilRefilled() {
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        assertThat(bucket.available(0)).isEqualTo(3);
+        for (int i = 0; i < 3; i++)
+            assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 2);
+
+        assertThat(bucket.tryAcquire(SECOND / 2 - 1)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(SECOND / 2)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 2)).isPositive();
+    }
+
+    @Test
+    void neverStoresMoreThanBurst() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        assertThat(bucket.available(3600 * SECOND)).isEqualTo(5);
+        int admitted = 0;
+        while (bucket.tryAcquire(3600 * SECOND) == 0)
+            admitted++;
+        assertThat(admitted).isEqualTo(5);
+    }
+
+    @Test
+    void concurrentCallersShareTheBurstExactly() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 1_000, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 10_000; j++) {
+                    if (bucket.tryAcquire(0) == 0)
+                        admitted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+
+        assertThat(admitted.get()).isEqualTo(1_000);
+    }
+}
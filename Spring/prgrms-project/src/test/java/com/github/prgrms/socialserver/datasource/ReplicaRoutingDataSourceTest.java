@@ -0,0 +1,173 @@
+package com.github.prgrms.socialserver.datasource;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.event.UserEventPublisher;
+import com.github.prgrms.socialserver.event.UserEventRing;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import com.github.prgrms.socialserver.repository.EmailSearchUserRepository;
+import com.github.prgrms.socialserver.repository.GroupCommitUserRepository;
+import com.github.prgrms.socialserver.repository.UserRepositoryImpl;
+import com.github.prgrms.socialserver.security.PasswordHasher;
+import com.github.prgrms.socialserver.service.LoginCountWriter;
+import com.github.prgrms.socialserver.service.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate writeTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @AfterEach
+    void tearDown() {
+        databases.forEach(EmbeddedDatabase::shutdown);
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        setUp(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ZERO, "replica");
+
+        writeTransaction.execute(status -> jdbcTemplate.update("INSERT INTO users (email, passwd) VALUES ('new@gmail.com', '1234')"));
+
+        assertThat(readOnlyTransaction.execute(status -> emails())).containsExactly("replica@gmail.com");
+        assertThat(writeTransaction.execute(status -> emails())).containsExactly("primary@gmail.com", "new@gmail.com");
+    }
+
+    @Test
+    void readsFollowWritesToPrimaryWithinWindow() {
+        setUp(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ofMinutes(1), "replica");
+
+        assertThat(readOnlyTransaction.execute(status -> emails())).containsExactly("replica@gmail.com");
+        writeTransaction.execute(status -> jdbcTemplate.update("INSERT INTO users (email, passwd) VALUES ('new@gmail.com', '1234')"));
+        assertThat(readOnlyTransaction.execute(status -> emails())).contains("new@gmail.com");
+
+        ReadYourWrites.clear();
+        assertThat(readOnlyTransaction.execute(status -> emails())).containsExactly("replica@gmail.com");
+    }
+
+    /**
+     * 가입은 해시 스레드와 저장 스레드, group commit 스레드를 거쳐 끝나지만, 가입한 스레드의 다음 읽기는 primary 로 가야 한다.
+     */
+    @Test
+    void signupThroughServiceIsReadBackFromPrimary() throws Exception {
+        setUp(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ofMinutes(1), "replica");
+        UserRepositoryImpl store = new UserRepositoryImpl(jdbcTemplate, new MetricsRegistry(), 100, 100);
+        GroupCommitUserRepository userRepository = new GroupCommitUserRepository(store, TimeUnit.MILLISECONDS.toNanos(10), 100, 100);
+        LoginCountWriter loginCountWriter = new LoginCountWriter(userRepository, 60_000, 100);
+        PasswordHasher passwordHasher = new PasswordHasher(4, 1, 16);
+        UserServiceImpl userService = new UserServiceImpl(userRepository, loginCountWriter, passwordHasher,
+                new EmailSearchUserRepository(userRepository), new UserEventPublisher(new UserEventRing(16)), 1, 16);
+        try {
+            User saved = userService.save(new Email("new@gmail.com"), "12345").get(5, TimeUnit.SECONDS);
+
+            User found = readOnlyTransaction.execute(status -> userService.findOne(saved.getSeq()));
+            assertThat(found.getEmail().getAddress()).isEqualTo("new@gmail.com");
+
+            ReadYourWrites.clear();
+            assertThatThrownBy(() -> readOnlyTransaction.execute(status -> userService.findOne(saved.getSeq())))
+                    .isInstanceOf(EmptyResultDataAccessException.class);
+        } finally {
+            userService.shutdown();
+            passwordHasher.shutdown();
+            loginCountWriter.shutdown();
+            userRepository.shutdown();
+        }
+    }
+
+    @Test
+    void roundRobinAlternatesReplicas() {
+        setUp(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ZERO, "first", "second");
+
+        assertThat(readOnlyTransaction.execute(status -> emails())).containsExactly("first@gmail.com");
+        assertThat(readOnlyTransaction.execute(status -> emails())).containsExactly("second@gmail.com");
+        assertThat(readOnlyTransaction.execute(status -> emails())).containsExactly("first@gmail.com");
+    }
+
+    @Test
+    void leastBusyAvoidsReplicaWithBorrowedConnection() throws SQLException {
+        ReplicaRoutingDataSource routing = setUp(ReplicaRoutingDataSource.Strategy.LEAST_BUSY, Duration.ZERO, "first", "second");
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection held = routing.getConnection()) {
+            assertThat(emailOf(held)).isEqualTo("first@gmail.com");
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = routing.getConnection()) {
+                    assertThat(emailOf(connection)).isEqualTo("second@gmail.com");
+                }
+            }
+            assertThat(routing.activeConnections()).containsEntry("replica-0", 1).containsEntry("replica-1", 0);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private ReplicaRoutingDataSource setUp(ReplicaRoutingDataSource.Strategy strategy, Duration window, String... replicaNames) {
+        DataSource primary = database("primary");
+        List<DataSource> replicas = new ArrayList<>();
+        Arrays.stream(replicaNames).forEach(name -> replicas.add(database(name)));
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, strategy, window);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return routing;
+    }
+
+    private EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .addScript("schema.sql")
+                .build();
+        new JdbcTemplate(database).update("INSERT INTO users (email, passwd) VALUES (?, '1234')", name + "@gmail.com");
+        databases.add(database);
+        return database;
+    }
+
+    private List<String> emails() {
+        return jdbcTemplate.queryForList("SELECT email FROM users ORDER BY seq", String.class);
+    }
+
+    private static String emailOf(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT email FROM users ORDER BY seq")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
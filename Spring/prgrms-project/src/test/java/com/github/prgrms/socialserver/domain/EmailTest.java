@@ -0,0 +1,92 @@
+package com.github.prgrms.socialserver.domain;
+
+import com.google.common.base.Strings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Email 의 검사는 [\w~\-.+]+@[\w~\-]+(\.[\w~\-]+)+ 와 같아야 한다.
+ */
+class EmailTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "kim@gmail.com",
+            "a@b.c",
+            "kim.lee+tag@gmail.com",
+            ".kim.@gmail.com",
+            "kim~_-@mail.gmail.com",
+            "KIM@G-MAIL.CO.KR",
+            "123@456.789"
+    })
+    void acceptsValidAddress(String address) {
+        Email email = new Email(address);
+
+        assertThat(email.getAddress()).isEqualTo(address);
+        assertThat(email.getName() + "@" + email.getDomain()).isEqualTo(address);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "@gmail.com",
+            "kimgmail.com",
+            "kim@gmail",
+            "kim@.gmail.com",
+            "kim@gmail..com",
+            "kim@gmail.com.",
+            "kim@gmail.",
+            "kim@gm+ail.com",
+            "kim@gmail.c+m",
+            "kim@lee@gmail.com",
+            "kim@@gmail.com",
+            "k!m@gmail.com",
+            "kim @gmail.com",
+            "kim@gmail .com",
+            "김@gmail.com"
+    })
+    void rejectsInvalidAddress(String address) {
+        assertThatThrownBy(() -> new Email(address))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid email address");
+    }
+
+    @Test
+    void checksLengthBounds() {
+        String domain = "@gmail.com";
+
+        assertThat(new Email("a@b.c").getAddress()).hasSize(5);
+        assertThat(new Email(Strings.repeat("a", 50 - domain.length()) + domain).getAddress()).hasSize(50);
+        assertThatThrownBy(() -> new Email(Strings.repeat("a", 51 - domain.length()) + domain))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("length");
+        assertThatThrownBy(() -> new Email("a@b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("length");
+        assertThatThrownBy(() -> new Email(""))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Email(null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sharesOneDomainInstanceAcrossAddresses() {
+        Email kim = new Email("kim@gmail.com");
+        Email lee = new Email(new StringBuilder("lee@").append("gmail.com").toString());
+
+        assertThat(kim.getDomain()).isEqualTo("gmail.com");
+        assertThat(lee.getDomain()).isSameAs(kim.getDomain());
+        assertThat(new Email("park@naver.com").getDomain()).isNotSameAs(kim.getDomain());
+    }
+
+    @Test
+    void equalsByAddress() {
+        assertThat(new Email("kim@gmail.com"))
+                .isEqualTo(new Email("kim@gmail.com"))
+                .hasSameHashCodeAs(new Email("kim@gmail.com"))
+                .isNotEqualTo(new Email("lee@gmail.com"));
+    }
+}
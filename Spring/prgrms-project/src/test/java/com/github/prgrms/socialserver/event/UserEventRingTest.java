@@ -0,0 +1,148 @@
+package com.github.prgrms.socialserver.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserEventRingTest {
+
+    private UserEventRing ring;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ring.stop(5, TimeUnit.SECONDS);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"busy-spin", "yielding", "sleeping", "blocking"})
+    void everyConsumerReadsEveryEventInOrderAcrossWraps(String waitStrategy) throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        ring = new UserEventRing(64, 10, TimeUnit.SECONDS);
+        Recorder fast = new Recorder(0);
+        Recorder slow = new Recorder(1_000);
+        ring.addConsumer("fast", fast, WaitStrategy.of(waitStrategy));
+        ring.addConsumer("slow", slow, WaitStrategy.of("blocking"));
+        ring.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++)
+                    ring.publish(UserEventType.CREATED, producer * 1_000_000L + i, "user@gmail.com", i);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads)
+            thread.join();
+        ring.stop(10, TimeUnit.SECONDS);
+
+        for (Recorder recorder : new Recorder[]{fast, slow}) {
+            assertThat(recorder.count).isEqualTo(producers * perProducer);
+            assertThat(recorder.outOfOrder).isFalse();
+            for (int p = 0; p < producers; p++)
+                assertThat(recorder.nextIndex[p]).isEqualTo(perProducer);
+        }
+        assertThat(ring.lags()).containsValues(0L, 0L);
+    }
+
+    @Test
+    void publishDoesNotAllocate() throws Exception {
+        ring = new UserEventRing(1024);
+        ring.addConsumer("noop", (event, sequence, endOfBatch) -> {
+        }, WaitStrategy.of("yielding"));
+        ring.start();
+        for (int i = 0; i < 200_000; i++)
+            ring.publish(UserEventType.CREATED, i, "warmup@gmail.com", i);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++)
+            ring.publish(UserEventType.DELETED, i, "user@gmail.com", i);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(allocated).isLessThan(1024);
+    }
+
+    @Test
+    void publishDropsEventWhenConsumerIsStuck() throws Exception {
+        ring = new UserEventRing(4, 50, TimeUnit.MILLISECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        ring.addConsumer("stuck", (event, sequence, endOfBatch) -> release.await(), WaitStrategy.of("blocking"));
+        ring.start();
+        try {
+            for (int i = 0; i < 4; i++)
+                assertThat(ring.publish(UserEventType.CREATED, i, "user@gmail.com", i)).isEqualTo(i);
+
+            assertThat(ring.publish(UserEventType.CREATED, 4, "user@gmail.com", 4)).isEqualTo(-1);
+            assertThat(ring.getDropped()).isEqualTo(1);
+            assertThat(ring.cursor()).isEqualTo(3);
+        } finally {
+            release.countDown();
+        }
+        assertThat(ring.publish(UserEventType.CREATED, 5, "user@gmail.com", 5)).isEqualTo(4);
+    }
+
+    @Test
+    void publishAfterStopDoesNotWait() throws Exception {
+        ring = new UserEventRing(4, 10, TimeUnit.SECONDS);
+        ring.addConsumer("noop", (event, sequence, endOfBatch) -> {
+        }, WaitStrategy.of("blocking"));
+        ring.start();
+        ring.stop(5, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 8; i++)
+            ring.publish(UserEventType.CREATED, i, "user@gmail.com", i);
+
+        assertThat(ring.getDropped()).isEqualTo(4);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * producer 마다 seq 가 0, 1, 2 ... 순서로 오는지 확인한다.
+     */
+    private static class Recorder implements UserEventHandler {
+
+        private final long spinNanos;
+
+        private final int[] nextIndex = new int[4];
+
+        private int count;
+
+        private boolean outOfOrder;
+
+        private long lastSequence = -1;
+
+        private Recorder(long spinNanos) {
+            this.spinNanos = spinNanos;
+        }
+
+        @Override
+        public void onEvent(UserEvent event, long sequence, boolean endOfBatch) {
+            int producer = (int) (event.getSeq() / 1_000_000L);
+            int index = (int) (event.getSeq() % 1_000_000L);
+            if (sequence != lastSequence + 1 || index != nextIndex[producer] || event.getTimestamp() != index)
+                outOfOrder = true;
+            nextIndex[producer]++;
+            lastSequence = sequence;
+            count++;
+
+            long until = System.nanoTime() + spinNanos;
+            while (System.nanoTime() < until)
+                Thread.onSpinWait();
+        }
+    }
+}
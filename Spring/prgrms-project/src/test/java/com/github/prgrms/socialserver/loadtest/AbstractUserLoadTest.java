@@ -0,0 +1,80 @@
+package com.github.prgrms.socialserver.loadtest;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.LatencyHistogram;
+import com.github.prgrms.socialserver.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 내장 H2 로 서버를 띄우고 GET /api/users/{seq} 를 일정한 동시성으로 호출해
+ * 처리량과 지연 시간 백분위를 출력한다. -Dloadtest=true 일 때만 실행된다.
+ * 하위 클래스는 캐시를 사실상 끄고(maximum-size=1) 요청이 DB 까지 가도록 설정한다.
+ * VirtualThreadLoadTest 는 Java 21 이상에서 실행해야 virtual thread 로 동작한다.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+abstract class AbstractUserLoadTest {
+
+    private static final int USERS = 1_000;
+
+    private static final int CONCURRENCY = 500;
+
+    private static final int REQUESTS = 50_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void retrieveUserUnderLoad() throws Exception {
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++)
+            users.add(new User(new Email("load" + i + "@gmail.com"), "1234"));
+        userRepository.saveAll(users);
+
+        HttpClient client = HttpClient.newHttpClient();
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder failures = new LongAdder();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<CompletableFuture<?>> responses = new ArrayList<>(REQUESTS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            long seq = ThreadLocalRandom.current().nextLong(1, USERS + 1);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/" + seq)).build();
+            long sent = System.nanoTime();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latency.record(System.nanoTime() - sent);
+                        if (e != null || response.statusCode() != 200)
+                            failures.increment();
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%s: %,.0f req/s, failures=%d, latency=%s%n",
+                getClass().getSimpleName(), REQUESTS * 1e9 / elapsed, failures.sum(), latency.snapshot());
+        assertThat(latency.count()).isEqualTo(REQUESTS);
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.prgrms.socialserver.loadtest;
+
+import com.github.prgrms.socialserver.metrics.LatencyHistogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * 응답을 기다리지 않고 정해진 간격(1 / rate)마다 요청을 보내는 open-model 부하 생성기.
+ *
+ * i 번째 요청은 start + i * interval 에 나가야 한다. 서버가 느려져 보내는 쪽이 밀려도 간격을 늘리지 않고,
+ * 지연 시간을 실제로 보낸 시각이 아니라 보냈어야 하는 시각부터 잰다. (coordinated omission 보정)
+ * 실제로 보낸 시각부터 잰 값은 serviceTime 으로 따로 남긴다.
+ */
+class OpenModelLoadGenerator {
+
+    private final HttpClient client;
+
+    private final double ratePerSecond;
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    private final long seed;
+
+    private int totalWeight;
+
+    OpenModelLoadGenerator(HttpClient client, double ratePerSecond, long seed) {
+        checkArgument(ratePerSecond > 0, "ratePerSecond must be positive.");
+
+        this.client = client;
+        this.ratePerSecond = ratePerSecond;
+        this.seed = seed;
+    }
+
+    /**
+     * weight 비율로 섞어 보낼 요청을 추가한다. request 는 요청 번호를 받아 요청을 만든다.
+     */
+    OpenModelLoadGenerator operation(String name, int weight, LongFunction<HttpRequest> request) {
+        checkArgument(weight >= 0, "weight must not be negative.");
+        if (weight > 0) {
+            operations.add(new Operation(name, weight, request));
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    /**
+     * warmup 동안 보낸 요청은 기록하지 않는다. 모든 응답이 돌아오거나 drainTimeout 이 지나면 끝난다.
+     */
+    Map<String, Object> run(Duration warmup, Duration duration, Duration drainTimeout) {
+        checkArgument(!operations.isEmpty(), "At least one operation must have a positive weight.");
+
+        long intervalNanos = (long) (1e9 / ratePerSecond);
+        long warmupRequests = warmup.toNanos() / intervalNanos;
+        long measuredRequests = duration.toNanos() / intervalNanos;
+        SplittableRandom random = new SplittableRandom(seed);
+        List<CompletableFuture<?>> responses = new ArrayList<>((int) Math.min(measuredRequests, Integer.MAX_VALUE));
+        long maxLagNanos = 0;
+
+        long start = System.nanoTime();
+        long measureStart = start + warmupRequests * intervalNanos;
+        for (long i = 0; i < warmupRequests + measuredRequests; i++) {
+            long intended = start + i * intervalNanos;
+            long now;
+            while ((now = System.nanoTime()) < intended)
+                LockSupport.parkNanos(intended - now);
+            long sent = now;
+            maxLagNanos = Math.max(maxLagNanos, sent - intended);
+
+            Operation operation = pick(random.nextInt(totalWeight));
+            boolean measured = i >= warmupRequests;
+            HttpRequest request = operation.request.apply(i);
+            CompletableFuture<?> response = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((result, e) -> {
+                        if (!measured)
+                            return;
+                        long completed = System.nanoTime();
+                        operation.latency.record(completed - intended);
+                        operation.serviceTime.record(completed - sent);
+                        if (e != null || result.statusCode() >= 400)
+                            operation.failures.increment();
+                    });
+            if (measured)
+                responses.add(response);
+        }
+        long sendEnd = System.nanoTime();
+
+        try {
+            CompletableFuture.allOf(responses.toArray(new CompletableFuture[0]))
+                    .exceptionally(e -> null)
+                    .get(drainTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            // 남은 요청은 응답하지 않은 것으로 보고한다.
+        }
+        double elapsedSeconds = (System.nanoTime() - measureStart) / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRatePerSecond", ratePerSecond);
+        report.put("offeredRatePerSecond", measuredRequests / ((sendEnd - measureStart) / 1e9));
+        report.put("durationSeconds", duration.getSeconds());
+        report.put("requests", measuredRequests);
+        report.put("maxSendLagMicros", maxLagNanos / 1_000.0);
+
+        Map<String, Object> byOperation = new LinkedHashMap<>();
+        long completed = 0;
+        long failures = 0;
+        for (Operation operation : operations) {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("weight", operation.weight);
+            metrics.put("completed", operation.latency.count());
+            metrics.put("failures", operation.failures.sum());
+            metrics.put("throughputPerSecond", operation.latency.count() / elapsedSeconds);
+            metrics.put("latency", operation.latency.snapshot());
+            metrics.put("serviceTime", operation.serviceTime.snapshot());
+            byOperation.put(operation.name, metrics);
+            completed += operation.latency.count();
+            failures += operation.failures.sum();
+        }
+        report.put("completed", completed);
+        report.put("unanswered", measuredRequests - completed);
+        report.put("failures", failures);
+        report.put("throughputPerSecond", completed / elapsedSeconds);
+        report.put("operations", byOperation);
+        return report;
+    }
+
+    private Operation pick(int ticket) {
+        for (Operation operation : operations) {
+            ticket -= operation.weight;
+            if (ticket < 0)
+                return operation;
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static class Operation {
+
+        private final String name;
+
+        private final int weight;
+
+        private final LongFunction<HttpRequest> request;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+
+        private final LongAdder failures = new LongAdder();
+
+        private Operation(String name, int weight, LongFunction<HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.prgrms.socialserver.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.repository.UserRepository;
+import com.google.common.base.Splitter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 내장 H2 로 서버를 띄우고 OpenModelLoadGenerator 로 UserController 에 일정한 도착률의 요청을 섞어 보낸다.
+ * 결과(처리량, 보정된 지연 시간 백분위)는 loadtest.report 파일에 JSON 으로 남긴다. -Dloadtest=true 일 때만 실행된다.
+ *
+ * -Dloadtest.rate=2000              초당 요청 수
+ * -Dloadtest.duration-seconds=30    측정 시간 (앞의 loadtest.warmup-seconds=5 는 기록하지 않는다)
+ * -Dloadtest.mix=get=80,list=15,join=5
+ * -Dloadtest.report=loadtest-report.json
+ *
+ * 생성기 하나가 한 클라이언트이므로 가입 admission 제한은 풀어 둔다. 비밀번호 해시 cost 등은 -Dusers.password.cost 처럼 바꾼다.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:open-model-load;DB_CLOSE_DELAY=-1",
+                "users.admission.permits-per-second=1000000",
+                "users.admission.burst=1000000"
+        })
+class OpenModelLoadTest {
+
+    private static final int USERS = 10_000;
+
+    private static final int PAGE_LIMIT = 100;
+
+    private static final List<String> OPERATIONS = Arrays.asList("get", "list", "join");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void driveConstantArrivalRate() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "2000"));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+        Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix", "get=80,list=15,join=5"));
+        Path report = Paths.get(System.getProperty("loadtest.report", "loadtest-report.json"));
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++)
+            users.add(new User(new Email("load" + i + "@gmail.com"), "1234"));
+        long[] seqs = userRepository.saveAll(users).stream().mapToLong(User::getSeq).toArray();
+
+        String base = "http://localhost:" + port;
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(HttpClient.newHttpClient(), rate, 42)
+                .operation("get", mix.getOrDefault("get", 0),
+                        i -> HttpRequest.newBuilder(URI.create(base + "/api/users/" + seqs[(int) (i % seqs.length)])).build())
+                .operation("list", mix.getOrDefault("list", 0),
+                        i -> HttpRequest.newBuilder(URI.create(base + "/api/users?limit=" + PAGE_LIMIT
+                                + "&cursor=" + seqs[(int) (i % (seqs.length - PAGE_LIMIT))])).build())
+                .operation("join", mix.getOrDefault("join", 0),
+                        i -> HttpRequest.newBuilder(URI.create(base + "/api/users/join"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        "{\"principal\":\"join-" + runId + "-" + i + "@gmail.com\",\"credentials\":\"12345678\"}"))
+                                .build());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mix", mix);
+        result.putAll(generator.run(warmup, duration, Duration.ofSeconds(30)));
+
+        Files.write(report, objectMapper.writer()
+                .with(SerializationFeature.INDENT_OUTPUT)
+                .writeValueAsBytes(result));
+        System.out.printf("open-model load: %s -> %s%n", result, report.toAbsolutePath());
+        assertThat((long) result.get("completed")).isPositive();
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        Splitter.on(',').trimResults().omitEmptyStrings().withKeyValueSeparator('=')
+                .split(mix)
+                .forEach((name, weight) -> weights.put(name, Integer.parseInt(weight.trim())));
+        checkArgument(OPERATIONS.containsAll(weights.keySet()), "loadtest.mix must use only %s.", OPERATIONS);
+        return weights;
+    }
+}
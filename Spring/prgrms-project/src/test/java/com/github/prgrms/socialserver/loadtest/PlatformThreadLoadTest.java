@@ -0,0 +1,12 @@
+package com.github.prgrms.socialserver.loadtest;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:platform-load;DB_CLOSE_DELAY=-1",
+                "users.cache.maximum-size=1"
+        })
+class PlatformThreadLoadTest extends AbstractUserLoadTest {
+}
@@ -0,0 +1,13 @@
+package com.github.prgrms.socialserver.loadtest;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:virtual-load;DB_CLOSE_DELAY=-1",
+                "users.cache.maximum-size=1",
+                "server.tomcat.virtual-threads=true"
+        })
+class VirtualThreadLoadTest extends AbstractUserLoadTest {
+}
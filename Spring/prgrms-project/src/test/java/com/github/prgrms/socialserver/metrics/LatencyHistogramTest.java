@@ -0,0 +1,31 @@
+package com.github.prgrms.socialserver.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketUpperBoundCoversRecordedValue() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 33, 1_000, 123_456_789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.upperBoundOf(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0)
+                assertThat(LatencyHistogram.upperBoundOf(index - 1)).isLessThan(value);
+        }
+    }
+
+    @Test
+    void percentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++)
+            histogram.record(micros * 1_000);
+
+        assertThat(histogram.count()).isEqualTo(100_000);
+        assertThat((double) histogram.valueAt(0.5)).isCloseTo(50_000_000, within(50_000_000 * 0.0625));
+        assertThat((double) histogram.valueAt(0.99)).isCloseTo(99_000_000, within(99_000_000 * 0.0625));
+        assertThat(histogram.max()).isEqualTo(100_000_000);
+    }
+}
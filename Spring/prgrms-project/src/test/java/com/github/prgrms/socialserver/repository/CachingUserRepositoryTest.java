@@ -0,0 +1,96 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CachingUserRepositoryTest {
+
+    private UserRepository delegate;
+
+    private CachingUserRepository userRepository;
+
+    private final User user = new User.Builder()
+            .seq(1L)
+            .email(new Email("test@gmail.com"))
+            .passwd("1234")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserRepository.class);
+        userRepository = new CachingUserRepository(delegate, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void findOneReadsThroughOnlyOnce() {
+        when(delegate.findOne(1L)).thenReturn(user);
+
+        userRepository.findOne(1L);
+        userRepository.findOne(1L);
+
+        verify(delegate, times(1)).findOne(1L);
+        assertThat(userRepository.stats().hitCount()).isEqualTo(1);
+        assertThat(userRepository.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteInvalidatesCachedUser() {
+        when(delegate.findOne(1L)).thenReturn(user);
+        userRepository.findOne(1L);
+
+        when(delegate.findOne(1L)).thenThrow(new EmptyResultDataAccessException(1));
+        userRepository.delete("test@gmail.com");
+
+        assertThatThrownBy(() -> userRepository.findOne(1L)).isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    @Test
+    void loginOnReturnedUserDoesNotChangeCachedUser() {
+        when(delegate.findOne(1L)).thenReturn(user);
+
+        userRepository.findOne(1L).afterLoginSuccess();
+
+        assertThat(userRepository.findOne(1L).getLogin_count()).isZero();
+        assertThat(user.getLogin_count()).isZero();
+    }
+
+    @Test
+    void increaseLoginCountsInvalidatesFlushedUsers() {
+        when(delegate.findOne(1L)).thenReturn(user);
+        userRepository.findOne(1L);
+
+        User loggedIn = new User.Builder(user).build();
+        loggedIn.afterLoginSuccess();
+        when(delegate.findOne(1L)).thenReturn(loggedIn);
+        userRepository.increaseLoginCounts(Collections.singletonList(new LoginCount(1L, 1, LocalDateTime.now())));
+
+        assertThat(userRepository.findOne(1L).getLogin_count()).isEqualTo(1);
+        verify(delegate, times(2)).findOne(1L);
+    }
+
+    @Test
+    void evictsWhenMaximumSizeExceeded() {
+        when(delegate.findOne(anyLong())).thenAnswer(invocation -> new User.Builder(user)
+                .seq(invocation.getArgument(0))
+                .build());
+
+        for (long seq = 1; seq <= 3; seq++)
+            userRepository.findOne(seq);
+
+        assertThat(userRepository.size()).isEqualTo(2);
+        assertThat(userRepository.stats().evictionCount()).isEqualTo(1);
+    }
+}
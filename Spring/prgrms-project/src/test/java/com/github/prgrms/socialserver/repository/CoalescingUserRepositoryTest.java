@@ -0,0 +1,177 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.datasource.ReadYourWrites;
+import com.github.prgrms.socialserver.datasource.ReplicaRoutingDataSource;
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+class CoalescingUserRepositoryTest {
+
+    private UserRepository delegate;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserRepository.class);
+        when(delegate.findOne(anyLong())).thenAnswer(invocation -> {
+            long seq = invocation.getArgument(0);
+            if (seq > 100)
+                throw new EmptyResultDataAccessException(1);
+            return userOf(seq);
+        });
+        when(delegate.findAllBySeq(anyCollection())).thenAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            for (Long seq : invocation.<Collection<Long>>getArgument(0)) {
+                if (seq <= 100)
+                    users.add(userOf(seq));
+            }
+            return users;
+        });
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() throws Exception {
+        CoalescingUserRepository userRepository = new CoalescingUserRepository(delegate, TimeUnit.MILLISECONDS.toNanos(50), 1000);
+        int callers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<User>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            long seq = i % 8 + 1;
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return userRepository.findOne(seq);
+            }, executor));
+        }
+
+        start.countDown();
+        for (int i = 0; i < callers; i++)
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS).getSeq()).isEqualTo(i % 8 + 1);
+        executor.shutdown();
+
+        assertThat(userRepository.getLookups()).isEqualTo(callers);
+        assertThat(userRepository.getBatches()).isLessThan(callers);
+    }
+
+    @Test
+    void missingSeqFailsOnlyItsOwnCaller() throws Exception {
+        CoalescingUserRepository userRepository = new CoalescingUserRepository(delegate, TimeUnit.MILLISECONDS.toNanos(50), 1000);
+
+        CompletableFuture<User> found = CompletableFuture.supplyAsync(() -> userRepository.findOne(7L));
+        Thread.sleep(10);
+
+        assertThatThrownBy(() -> userRepository.findOne(404L)).isInstanceOf(EmptyResultDataAccessException.class);
+        assertThat(found.get(5, TimeUnit.SECONDS).getSeq()).isEqualTo(7L);
+    }
+
+    @Test
+    void fullBatchDoesNotWaitForWindow() {
+        CoalescingUserRepository userRepository = new CoalescingUserRepository(delegate, TimeUnit.SECONDS.toNanos(30), 2);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            CompletableFuture<User> first = CompletableFuture.supplyAsync(() -> userRepository.findOne(1L));
+            CompletableFuture<User> second = CompletableFuture.supplyAsync(() -> userRepository.findOne(2L));
+            assertThat(first.get().getSeq()).isEqualTo(1L);
+            assertThat(second.get().getSeq()).isEqualTo(2L);
+        });
+    }
+
+    /**
+     * 배치 조회는 leader 스레드의 ReadYourWrites 로 replica 에 가므로, 방금 쓴 스레드의 조회는 배치에 넣지 않고 primary 에서 읽어야 한다.
+     */
+    @Test
+    void lookupRightAfterWriteIsNotFoldedIntoReplicaBatch() throws Exception {
+        EmbeddedDatabase primary = database();
+        EmbeddedDatabase replica = database();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Collections.singletonList(replica),
+                ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ofMinutes(1));
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate writeTransaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // UserRepositoryImpl 의 @Transactional(readOnly = true) 대신 조회를 읽기 전용 트랜잭션으로 감싼다.
+        UserRepositoryImpl store = new UserRepositoryImpl(jdbcTemplate, new MetricsRegistry(), 100, 100);
+        UserRepository readOnlyStore = new ForwardingUserRepository(store) {
+            @Override
+            public User findOne(Long seq) {
+                return readOnlyTransaction.execute(status -> delegate.findOne(seq));
+            }
+
+            @Override
+            public List<User> findAllBySeq(Collection<Long> seqs) {
+                return readOnlyTransaction.execute(status -> delegate.findAllBySeq(seqs));
+            }
+        };
+        CoalescingUserRepository userRepository = new CoalescingUserRepository(readOnlyStore,
+                TimeUnit.MILLISECONDS.toNanos(200), 1000, TimeUnit.MINUTES.toNanos(1));
+
+        try {
+            CompletableFuture<User> leader = CompletableFuture.supplyAsync(() -> userRepository.findOne(1L));
+            Thread.sleep(50);
+
+            writeTransaction.execute(status -> jdbcTemplate.update("INSERT INTO users (email, passwd) VALUES ('new@gmail.com', '1234')"));
+            assertThat(userRepository.findOne(2L).getEmail().getAddress()).isEqualTo("new@gmail.com");
+            assertThat(leader.get(5, TimeUnit.SECONDS).getEmail().getAddress()).isEqualTo("first@gmail.com");
+            assertThat(userRepository.getLookups()).isEqualTo(1);
+        } finally {
+            ReadYourWrites.clear();
+            primary.shutdown();
+            replica.shutdown();
+        }
+    }
+
+    private static EmbeddedDatabase database() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .addScript("schema.sql")
+                .build();
+        new JdbcTemplate(database).update("INSERT INTO users (email, passwd) VALUES ('first@gmail.com', '1234')");
+        return database;
+    }
+
+    private static User userOf(long seq) {
+        return new User.Builder()
+                .seq(seq)
+                .email(new Email("user" + seq + "@gmail.com"))
+                .passwd("1234")
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+class EmailIndexUserRepositoryTest {
+
+    private EmbeddedDatabase database;
+
+    private UserRepositoryImpl store;
+
+    private EmailIndexUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .addScript("schema.sql")
+                .build();
+        store = new UserRepositoryImpl(new JdbcTemplate(database), new MetricsRegistry(), 100, 100);
+        store.save(new User(new Email("kim@gmail.com"), "1234"));
+        store.save(new User(new Email("lee@gmail.com"), "1234"));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (repository != null)
+            repository.shutdown();
+        database.shutdown();
+    }
+
+    @Test
+    void asksDatabaseUntilFirstRebuild() {
+        repository = new EmailIndexUserRepository(store, 1000, 1e-6);
+
+        assertThat(repository.existsByEmail("kim@gmail.com")).isTrue();
+        assertThat(repository.existsByEmail("park@gmail.com")).isFalse();
+        assertThat(repository.getNegatives()).isZero();
+        assertThat(repository.getTruePositives()).isZero();
+        assertThat(repository.getFalsePositives()).isZero();
+    }
+
+    @Test
+    void countsNegativesAndConfirmsPositivesWithDatabase() {
+        repository = new EmailIndexUserRepository(store, 1000, 1e-6);
+        repository.rebuild();
+
+        assertThat(repository.existsByEmail("park@gmail.com")).isFalse();
+        assertThat(repository.existsByEmail("kim@gmail.com")).isTrue();
+        assertThat(repository.getNegatives()).isEqualTo(1);
+        assertThat(repository.getTruePositives()).isEqualTo(1);
+        assertThat(repository.getFalsePositives()).isZero();
+    }
+
+    /**
+     * Bloom filter 는 삭제를 모르므로, 삭제된 이메일은 filter 를 통과하고 DB 가 없다고 답한다.
+     */
+    @Test
+    void deletedEmailIsFalsePositiveAnsweredByDatabase() {
+        repository = new EmailIndexUserRepository(store, 1000, 1e-6);
+        repository.rebuild();
+        repository.delete("kim@gmail.com");
+
+        assertThat(repository.existsByEmail("kim@gmail.com")).isFalse();
+        assertThat(repository.existsByEmail("park@gmail.com")).isFalse();
+        assertThat(repository.getFalsePositives()).isEqualTo(1);
+        assertThat(repository.getNegatives()).isEqualTo(1);
+        assertThat(repository.falsePositiveRate()).isEqualTo(0.5);
+    }
+
+    /**
+     * 재구성이 테이블을 다 읽은 뒤 새 filter 를 걸기 전에 저장된 이메일은 재구성이 읽지 못한다.
+     * 이때 저장은 새 filter 에도 기록되어야 재구성이 끝난 뒤 없는 이메일로 답하지 않는다.
+     */
+    @Test
+    void saveDuringRebuildIsIndexedInNewFilter() {
+        CountDownLatch streamed = new CountDownLatch(1);
+        CountDownLatch saved = new CountDownLatch(1);
+        UserRepository slowStore = new ForwardingUserRepository(store) {
+            @Override
+            public void streamAll(Consumer<User> consumer) {
+                super.streamAll(consumer);
+                streamed.countDown();
+                await(saved);
+            }
+        };
+        repository = new EmailIndexUserRepository(slowStore, 1000, 1e-6);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            CompletableFuture<Void> rebuild = CompletableFuture.runAsync(repository::rebuild);
+            await(streamed);
+            repository.save(new User(new Email("park@gmail.com"), "1234"));
+            saved.countDown();
+            rebuild.get();
+        });
+
+        assertThat(repository.existsByEmail("park@gmail.com")).isTrue();
+        assertThat(repository.existsByEmail("kim@gmail.com")).isTrue();
+        assertThat(repository.getNegatives()).isZero();
+        assertThat(repository.getTruePositives()).isEqualTo(2);
+    }
+
+    @Test
+    void growsInBackgroundWithoutLosingEmails() {
+        repository = new EmailIndexUserRepository(store, 2, 1e-6);
+        repository.rebuild();
+
+        for (int i = 0; i < 20; i++)
+            repository.save(new User(new Email("user" + i + "@gmail.com"), "1234"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), repository::shutdown);
+        for (int i = 0; i < 20; i++)
+            assertThat(repository.existsByEmail("user" + i + "@gmail.com")).isTrue();
+        assertThat(repository.getNegatives()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
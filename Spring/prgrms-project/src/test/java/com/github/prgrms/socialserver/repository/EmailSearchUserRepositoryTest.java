@@ -0,0 +1,75 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import com.github.prgrms.socialserver.domain.UserSearchPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailSearchUserRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryUserRepository store;
+
+    private EmailSearchUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryUserRepository(directory.toString(), 1000, false);
+        store.save(new User(new Email("kim@gmail.com"), "1234"));
+        store.save(new User(new Email("lee@mail.gmail.com"), "1234"));
+        repository = new EmailSearchUserRepository(store);
+        repository.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void findsByDomainIncludingSubdomainsAndByPrefix() {
+        repository.saveAll(Arrays.asList(
+                new User(new Email("park@gmail.com"), "1234"),
+                new User(new Email("kang@naver.com"), "1234")));
+
+        assertThat(addresses(repository.search(null, "gmail.com", null, 10)))
+                .containsExactly("lee@mail.gmail.com", "kim@gmail.com", "park@gmail.com");
+        assertThat(addresses(repository.search("k", null, null, 10)))
+                .containsExactly("kang@naver.com", "kim@gmail.com");
+        assertThat(addresses(repository.search("p", "gmail.com", null, 10)))
+                .containsExactly("park@gmail.com");
+    }
+
+    @Test
+    void pagesWithCursorAndForgetsDeletedUsers() {
+        repository.save(new User(new Email("park@gmail.com"), "1234"));
+        repository.delete("kim@gmail.com");
+
+        UserSearchPage first = repository.search(null, "gmail.com", null, 1);
+        UserSearchPage second = repository.search(null, "gmail.com", first.getNextCursor(), 1);
+
+        assertThat(addresses(first)).containsExactly("lee@mail.gmail.com");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(addresses(second)).containsExactly("park@gmail.com");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(repository.size()).isEqualTo(2);
+    }
+
+    private static String[] addresses(UserSearchPage page) {
+        return page.getUsers().stream()
+                .map(UserProjection::getEmail)
+                .map(Email::getAddress)
+                .toArray(String[]::new);
+    }
+}
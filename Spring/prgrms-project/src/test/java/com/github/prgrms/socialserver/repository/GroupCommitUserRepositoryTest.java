@@ -0,0 +1,158 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+class GroupCommitUserRepositoryTest {
+
+    private UserRepository delegate;
+
+    private GroupCommitUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        Set<String> emails = new HashSet<>();
+        AtomicLong lastSeq = new AtomicLong();
+        delegate = mock(UserRepository.class);
+        when(delegate.saveAll(anyList())).thenAnswer(invocation -> {
+            List<User> saved = new ArrayList<>();
+            for (User user : invocation.<List<User>>getArgument(0)) {
+                Long seq = emails.add(user.getEmail().getAddress()) ? lastSeq.incrementAndGet() : null;
+                saved.add(new User.Builder(user).seq(seq).build());
+            }
+            return saved;
+        });
+        userRepository = new GroupCommitUserRepository(delegate, TimeUnit.MILLISECONDS.toNanos(50), 1000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        userRepository.shutdown();
+    }
+
+    @Test
+    void concurrentSavesShareOneBatch() throws Exception {
+        int callers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<User>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            User user = new User(new Email("user" + i + "@gmail.com"), "1234");
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return userRepository.save(user);
+            }, executor));
+        }
+
+        start.countDown();
+        Set<Long> seqs = new HashSet<>();
+        for (int i = 0; i < callers; i++) {
+            User saved = results.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(saved.getEmail().getAddress()).isEqualTo("user" + i + "@gmail.com");
+            seqs.add(saved.getSeq());
+        }
+        executor.shutdown();
+
+        assertThat(seqs).hasSize(callers);
+        assertThat(userRepository.getSaves()).isEqualTo(callers);
+        assertThat(userRepository.getBatches()).isLessThan(callers);
+        verify(delegate, never()).save(any());
+    }
+
+    @Test
+    void duplicateEmailFailsOnlyItsOwnCaller() throws Exception {
+        userRepository.save(new User(new Email("taken@gmail.com"), "1234"));
+
+        CompletableFuture<User> other = CompletableFuture.supplyAsync(
+                () -> userRepository.save(new User(new Email("fresh@gmail.com"), "1234")));
+        assertThatThrownBy(() -> userRepository.save(new User(new Email("taken@gmail.com"), "1234")))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(other.get(5, TimeUnit.SECONDS).getSeq()).isNotNull();
+    }
+
+    /**
+     * H2 위의 UserRepositoryImpl 로, 중복 검사를 지나친(동시 가입) 중복 하나가 같은 batch 의 다른 가입을 실패시키지 않는지 본다.
+     */
+    @Test
+    void duplicateInBatchDoesNotFailOtherCallersOnDatabase() throws Exception {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .addScript("schema.sql")
+                .build();
+        JdbcTemplate racingTemplate = new JdbcTemplate(database) {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                if (sql.startsWith("SELECT email FROM USERS WHERE email IN"))
+                    return Collections.emptyList();
+                return super.queryForList(sql, elementType, args);
+            }
+        };
+        UserRepositoryImpl store = new UserRepositoryImpl(racingTemplate, new MetricsRegistry(), 100, 100);
+        store.save(new User(new Email("taken@gmail.com"), "1234"));
+        GroupCommitUserRepository groupCommit = new GroupCommitUserRepository(store, TimeUnit.MILLISECONDS.toNanos(50), 1000, 1000);
+
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<User>> results = new ArrayList<>();
+        for (int i = 0; i <= callers; i++) {
+            String address = i == callers / 2 ? "taken@gmail.com" : "user" + i + "@gmail.com";
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return groupCommit.save(new User(new Email(address), "1234"));
+            }, executor));
+        }
+
+        try {
+            start.countDown();
+            for (int i = 0; i <= callers; i++) {
+                CompletableFuture<User> result = results.get(i);
+                if (i == callers / 2)
+                    assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(DuplicateKeyException.class);
+                else
+                    assertThat(result.get(5, TimeUnit.SECONDS).getSeq()).isNotNull();
+            }
+            assertThat(store.findAll()).hasSize(callers + 1);
+        } finally {
+            executor.shutdown();
+            groupCommit.shutdown();
+            database.shutdown();
+        }
+    }
+}
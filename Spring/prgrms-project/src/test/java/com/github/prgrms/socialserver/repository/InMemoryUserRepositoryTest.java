@@ -0,0 +1,93 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryUserRepositoryTest extends UserRepositoryContractTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = open(10);
+        userRepository = repository;
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void recoversFromSnapshotAndLogAfterRestart() {
+        List<User> saved = repository.saveAll(users("restart", 25));
+        LocalDateTime loginAt = LocalDateTime.of(2020, 9, 1, 12, 0, 0, 123_000_000);
+        repository.increaseLoginCounts(Arrays.asList(new LoginCount(saved.get(3).getSeq(), 2, loginAt)));
+        repository.delete("restart7@gmail.com");
+        repository.close();
+
+        repository = open(10);
+        userRepository = repository;
+
+        assertThat(repository.size()).isEqualTo(24);
+        assertThat(repository.existsByEmail("restart7@gmail.com")).isFalse();
+        User found = repository.findOne(saved.get(3).getSeq());
+        assertThat(found.getLogin_count()).isEqualTo(2);
+        assertThat(found.getLast_login_at()).contains(loginAt);
+        assertThat(repository.save(new User(new Email("next@gmail.com"), "1234")).getSeq())
+                .isEqualTo(saved.get(24).getSeq() + 1);
+    }
+
+    @Test
+    void discardsTornRecordAtEndOfLog() throws IOException {
+        repository.save(new User(new Email("whole@gmail.com"), "1234"));
+        repository.save(new User(new Email("torn@gmail.com"), "1234"));
+        repository.close();
+
+        try (RandomAccessFile log = new RandomAccessFile(directory.resolve("users-0.log").toFile(), "rw")) {
+            log.setLength(log.length() - 3);
+        }
+        repository = open(10);
+        userRepository = repository;
+
+        assertThat(repository.existsByEmail("whole@gmail.com")).isTrue();
+        assertThat(repository.existsByEmail("torn@gmail.com")).isFalse();
+        repository.save(new User(new Email("after@gmail.com"), "1234"));
+        repository.close();
+
+        repository = open(10);
+        userRepository = repository;
+        assertThat(repository.findAll()).extracting(user -> user.getEmail().getAddress())
+                .containsExactly("whole@gmail.com", "after@gmail.com");
+    }
+
+    @Test
+    void returnedUsersDoNotShareStoredState() {
+        User saved = repository.save(new User(new Email("copy@gmail.com"), "1234"));
+
+        repository.findOne(saved.getSeq()).afterLoginSuccess();
+
+        assertThat(repository.findOne(saved.getSeq()).getLogin_count()).isZero();
+    }
+
+    private InMemoryUserRepository open(int snapshotEvery) {
+        return new InMemoryUserRepository(directory.toString(), snapshotEvery, false);
+    }
+}
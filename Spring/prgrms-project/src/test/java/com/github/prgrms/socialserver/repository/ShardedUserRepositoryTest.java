@@ -0,0 +1,74 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+class ShardedUserRepositoryTest extends UserRepositoryContractTest {
+
+    private static final int SHARDS = 3;
+
+    private final List<EmbeddedDatabase> databases = new ArrayList<>();
+
+    private ShardedUserRepository shardedUserRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < SHARDS; i++) {
+            databases.add(new EmbeddedDatabaseBuilder()
+                    .generateUniqueName(true)
+                    .setType(H2)
+                    .addScript("schema.sql")
+                    .build());
+        }
+        shardedUserRepository = new ShardedUserRepository(new ArrayList<DataSource>(databases), new MetricsRegistry(), 100, 100);
+        userRepository = shardedUserRepository;
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedUserRepository.shutdown();
+        databases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void eachShardAllocatesSeqFromItsOwnRange() {
+        List<User> saved = userRepository.saveAll(users("range", 300));
+
+        int[] perShard = new int[SHARDS];
+        for (User user : saved) {
+            int shard = shardedUserRepository.shardIndexOf(user.getEmail().getAddress());
+            perShard[shard]++;
+            assertThat((user.getSeq() - 1) / ShardedUserRepository.SEQ_RANGE).isEqualTo((long) shard);
+            assertThat(userRepository.findOne(user.getSeq()).getEmail()).isEqualTo(user.getEmail());
+        }
+        for (int count : perShard)
+            assertThat(count).isGreaterThan(50);
+    }
+
+    @Test
+    void reopeningShardsKeepsTheirRanges() {
+        List<User> before = userRepository.saveAll(users("before", 30));
+        shardedUserRepository.shutdown();
+
+        shardedUserRepository = new ShardedUserRepository(new ArrayList<DataSource>(databases), new MetricsRegistry(), 100, 100);
+        userRepository = shardedUserRepository;
+        List<User> after = userRepository.saveAll(users("after", 30));
+
+        assertThat(seqs(after)).doesNotContainAnyElementsOf(seqs(before));
+        assertThat(userRepository.findAll()).extracting(User::getSeq)
+                .isSorted()
+                .hasSize(60);
+    }
+}
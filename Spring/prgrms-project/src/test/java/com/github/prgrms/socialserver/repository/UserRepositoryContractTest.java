@@ -0,0 +1,181 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.domain.UserField;
+import com.github.prgrms.socialserver.domain.UserProjection;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * UserRepository 구현체가 모두 지켜야 하는 동작. 구현체별 테스트가 상속해서 userRepository 를 채운다.
+ */
+abstract class UserRepositoryContractTest {
+
+    protected UserRepository userRepository;
+
+    @Test
+    void saveAllReturnsGeneratedSeqInRequestOrder() {
+        List<User> saved = userRepository.saveAll(users("batch", 250));
+
+        assertThat(saved).hasSize(250);
+        assertThat(saved).allMatch(user -> user.getSeq() != null);
+        assertThat(saved.get(0).getEmail().getAddress()).isEqualTo("batch0@gmail.com");
+        assertThat(userRepository.findOne(saved.get(249).getSeq()).getEmail().getAddress())
+                .isEqualTo("batch249@gmail.com");
+    }
+
+    @Test
+    void saveAllFailsOnlyDuplicatedRows() {
+        userRepository.save(new User(new Email("taken@gmail.com"), "1234"));
+
+        List<User> saved = userRepository.saveAll(Arrays.asList(
+                new User(new Email("first@gmail.com"), "1234"),
+                new User(new Email("taken@gmail.com"), "1234"),
+                new User(new Email("first@gmail.com"), "1234"),
+                new User(new Email("second@gmail.com"), "1234")
+        ));
+
+        assertThat(saved).extracting(user -> user.getSeq() != null)
+                .containsExactly(true, false, false, true);
+        assertThat(userRepository.findAll()).hasSize(3);
+    }
+
+    @Test
+    void existsByEmailAnswersWithoutThrowingOnMiss() {
+        userRepository.save(new User(new Email("taken@gmail.com"), "1234"));
+
+        assertThat(userRepository.existsByEmail("taken@gmail.com")).isTrue();
+        assertThat(userRepository.existsByEmail("free@gmail.com")).isFalse();
+    }
+
+    @Test
+    void increaseLoginCountsAddsToStoredCount() {
+        User saved = userRepository.save(new User(new Email("login@gmail.com"), "1234"));
+        LocalDateTime loginAt = LocalDateTime.of(2020, 9, 1, 12, 0);
+
+        userRepository.increaseLoginCounts(Arrays.asList(new LoginCount(saved.getSeq(), 3, loginAt)));
+        userRepository.increaseLoginCounts(Arrays.asList(new LoginCount(saved.getSeq(), 2, loginAt.minusDays(1))));
+
+        User found = userRepository.findOne(saved.getSeq());
+        assertThat(found.getLogin_count()).isEqualTo(5);
+        assertThat(found.getLast_login_at()).contains(loginAt);
+    }
+
+    @Test
+    void findAllPagesBySeqCursor() {
+        List<User> saved = bySeq(userRepository.saveAll(users("page", 25)));
+
+        List<User> first = userRepository.findAll(0, 10);
+        List<User> second = userRepository.findAll(first.get(9).getSeq(), 10);
+        List<User> last = userRepository.findAll(second.get(9).getSeq(), 10);
+
+        assertThat(first).extracting(User::getSeq).isEqualTo(seqs(saved.subList(0, 10)));
+        assertThat(second).extracting(User::getSeq).isEqualTo(seqs(saved.subList(10, 20)));
+        assertThat(last).extracting(User::getSeq).isEqualTo(seqs(saved.subList(20, 25)));
+    }
+
+    @Test
+    void findAllBySeqReadsOnlyExistingUsersInSeqOrder() {
+        List<User> saved = bySeq(userRepository.saveAll(users("multi", 5)));
+
+        List<User> found = userRepository.findAllBySeq(Arrays.asList(
+                saved.get(3).getSeq(), saved.get(0).getSeq(), -1L, saved.get(3).getSeq(), saved.get(4).getSeq() + 1000));
+
+        assertThat(found).extracting(User::getSeq).containsExactly(saved.get(0).getSeq(), saved.get(3).getSeq());
+        assertThat(found.get(1).getEmail()).isEqualTo(saved.get(3).getEmail());
+        assertThat(userRepository.findAllBySeq(Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    void streamAllVisitsEveryUserInSeqOrder() {
+        List<User> saved = bySeq(userRepository.saveAll(users("stream", 25)));
+        List<Long> streamed = new ArrayList<>();
+
+        userRepository.streamAll(user -> streamed.add(user.getSeq()));
+
+        assertThat(streamed).isEqualTo(seqs(saved));
+    }
+
+    @Test
+    void saveRejectsDuplicatedEmail() {
+        userRepository.save(new User(new Email("taken@gmail.com"), "1234"));
+
+        assertThatThrownBy(() -> userRepository.save(new User(new Email("taken@gmail.com"), "1234")))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void findOneThrowsOnMissingSeq() {
+        assertThatThrownBy(() -> userRepository.findOne(42L))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    @Test
+    void deleteRemovesUserFromEveryLookup() {
+        User saved = userRepository.save(new User(new Email("bye@gmail.com"), "1234"));
+        userRepository.save(new User(new Email("stay@gmail.com"), "1234"));
+
+        userRepository.delete("bye@gmail.com");
+
+        assertThat(userRepository.existsByEmail("bye@gmail.com")).isFalse();
+        assertThat(userRepository.findByEmail(new Email("bye@gmail.com"))).isEmpty();
+        assertThatThrownBy(() -> userRepository.findOne(saved.getSeq()))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+        assertThat(userRepository.findAll()).extracting(user -> user.getEmail().getAddress())
+                .containsExactly("stay@gmail.com");
+    }
+
+    @Test
+    void projectionReadsOnlyRequestedFieldsButAlwaysSeq() {
+        List<User> saved = bySeq(userRepository.saveAll(users("projection", 5)));
+        Set<UserField> fields = UserField.parse("email");
+
+        List<UserProjection> page = userRepository.findAll(saved.get(1).getSeq(), 2, fields);
+        UserProjection one = userRepository.findOne(saved.get(4).getSeq(), fields);
+        List<Long> streamed = new ArrayList<>();
+        userRepository.streamAll(fields, user -> streamed.add(user.getSeq()));
+
+        assertThat(page).extracting(UserProjection::getSeq).isEqualTo(seqs(saved.subList(2, 4)));
+        assertThat(page.get(0).getEmail()).isEqualTo(saved.get(2).getEmail());
+        assertThat(page.get(0).getFields()).containsExactly(UserField.EMAIL);
+        assertThat(one.getEmail()).isEqualTo(saved.get(4).getEmail());
+        assertThat(streamed).isEqualTo(seqs(saved));
+    }
+
+    /**
+     * seq 가 저장 순서대로 늘어난다고 가정하지 않도록 seq 순으로 정렬한다. (ShardedUserRepository)
+     */
+    protected static List<User> bySeq(List<User> users) {
+        List<User> sorted = new ArrayList<>(users);
+        sorted.sort(Comparator.comparing(User::getSeq));
+        return sorted;
+    }
+
+    protected static List<Long> seqs(List<User> users) {
+        List<Long> seqs = new ArrayList<>(users.size());
+        for (User user : users)
+            seqs.add(user.getSeq());
+        return seqs;
+    }
+
+    protected static List<User> users(String prefix, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            users.add(new User(new Email(prefix + i + "@gmail.com"), "1234"));
+        return users;
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.prgrms.socialserver.repository;
+
+import com.github.prgrms.socialserver.domain.Email;
+import com.github.prgrms.socialserver.domain.User;
+import com.github.prgrms.socialserver.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+
+class UserRepositoryImplTest extends UserRepositoryContractTest {
+
+    private EmbeddedDatabase database;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(H2)
+                .addScript("schema.sql")
+                .build();
+        userRepository = new UserRepositoryImpl(new JdbcTemplate(database), new MetricsRegistry(), 100, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    /**
+     * 중복 검사와 insert 사이에 다른 가입이 끼어든 경우. 중복 검사 쿼리가 아무것도 찾지 못하게 해서
+     * batch 중간의 한 행만 unique 제약에 걸리게 한다.
+     */
+    @Test
+    void saveAllKeepsRowsAroundDuplicateInsertedConcurrently() {
+        JdbcTemplate racingTemplate = new JdbcTemplate(database) {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                if (sql.startsWith("SELECT email FROM USERS WHERE email IN"))
+                    return Collections.emptyList();
+                return super.queryForList(sql, elementType, args);
+            }
+        };
+        userRepository = new UserRepositoryImpl(racingTemplate, new MetricsRegistry(), 100, 100);
+        userRepository.save(new User(new Email("taken@gmail.com"), "1234"));
+
+        List<User> users = users("race", 10);
+        users.add(5, new User(new Email("taken@gmail.com"), "1234"));
+        List<User> saved = userRepository.saveAll(users);
+
+        for (int i = 0; i < saved.size(); i++)
+            assertThat(saved.get(i).getSeq() != null).as("row %d", i).isEqualTo(i != 5);
+        assertThat(userRepository.findAll()).hasSize(11);
+    }
+}
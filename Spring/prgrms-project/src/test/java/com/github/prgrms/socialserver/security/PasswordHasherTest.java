@@ -0,0 +1,68 @@
+package com.github.prgrms.socialserver.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    @Test
+    void encodedPasswordMatchesOnlyOriginal() {
+        PasswordHasher hasher = new PasswordHasher(4, 1, 1);
+
+        String encoded = hasher.encode("12345678");
+
+        assertThat(encoded).startsWith("pbkdf2$4$").hasSizeLessThanOrEqualTo(80);
+        assertThat(encoded).isNotEqualTo(hasher.encode("12345678"));
+        assertThat(hasher.matches("12345678", encoded)).isTrue();
+        assertThat(hasher.matches("87654321", encoded)).isFalse();
+    }
+
+    @Test
+    void needsRehashWhenCostChangesOrPasswordIsPlain() {
+        PasswordHasher before = new PasswordHasher(4, 1, 1);
+        PasswordHasher after = new PasswordHasher(5, 1, 1);
+        String encoded = before.encode("12345678");
+
+        assertThat(before.needsRehash(encoded)).isFalse();
+        assertThat(after.needsRehash(encoded)).isTrue();
+        assertThat(after.matches("12345678", encoded)).isTrue();
+        assertThat(after.needsRehash("12345678")).isTrue();
+        assertThat(after.matches("12345678", "12345678")).isTrue();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(4, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Object> running = hasher.submit(() -> {
+            started.countDown();
+            await(release);
+            return null;
+        });
+        started.await();
+        CompletableFuture<String> queued = hasher.hash("12345678");
+
+        assertThatThrownBy(() -> hasher.hash("12345678")).isInstanceOf(PasswordHasherBusyException.class);
+        assertThat(hasher.getRejected()).isEqualTo(1);
+
+        release.countDown();
+        running.join();
+        assertThat(hasher.matches("12345678", queued.join())).isTrue();
+        hasher.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.prgrms.socialserver.service;
+
+import com.github.prgrms.socialserver.domain.LoginCount;
+import com.github.prgrms.socialserver.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LoginCountWriterTest {
+
+    /** 스케줄러가 테스트 중에 끼어들지 않을 만큼 긴 주기. */
+    private static final long NEVER = TimeUnit.MINUTES.toMillis(10);
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 9, 1, 12, 0);
+
+    private final List<List<LoginCount>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private UserRepository userRepository;
+
+    private LoginCountWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        doAnswer(invocation -> {
+            if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0)
+                throw new DataAccessResourceFailureException("database is down");
+            batches.add(new ArrayList<>(invocation.<List<LoginCount>>getArgument(0)));
+            return null;
+        }).when(userRepository).increaseLoginCounts(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null)
+            writer.shutdown();
+    }
+
+    @Test
+    void flushWritesAtMostMaxBatchSizeUsers() {
+        writer = new LoginCountWriter(userRepository, NEVER, 10);
+        for (long seq = 1; seq <= 25; seq++)
+            writer.record(seq, NOW);
+
+        assertThat(writer.flush()).isEqualTo(10);
+        assertThat(writer.flush()).isEqualTo(10);
+        assertThat(writer.flush()).isEqualTo(5);
+        assertThat(writer.flush()).isZero();
+        assertThat(batches).extracting(List::size).containsExactly(10, 10, 5);
+    }
+
+    @Test
+    void foldsLoginsOfSameUserIntoOneRow() {
+        writer = new LoginCountWriter(userRepository, NEVER, 10);
+        writer.record(1, NOW.minusMinutes(1));
+        writer.record(1, NOW);
+        writer.record(1, NOW.minusMinutes(2));
+
+        writer.flush();
+
+        LoginCount loginCount = batches.get(0).get(0);
+        assertThat(loginCount.getSeq()).isEqualTo(1);
+        assertThat(loginCount.getCount()).isEqualTo(3);
+        assertThat(loginCount.getLastLoginAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void failedFlushRestoresCountsForNextFlush() {
+        writer = new LoginCountWriter(userRepository, NEVER, 10);
+        writer.record(1, NOW.minusMinutes(1));
+        writer.record(2, NOW);
+        failures.set(1);
+
+        assertThatThrownBy(writer::flush).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(writer.pendingCount()).isEqualTo(2);
+
+        writer.record(1, NOW);
+        assertThat(writer.flush()).isEqualTo(2);
+        assertThat(batches.get(0))
+                .extracting(LoginCount::getSeq, LoginCount::getCount, LoginCount::getLastLoginAt)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, 2, NOW),
+                        tuple(2L, 1, NOW));
+    }
+
+    /**
+     * 한 주기에 maxBatchSize 명보다 많이 쌓여도 다음 주기로 밀리지 않는다.
+     * 주기당 한 batch 만 쓰면 35명을 비우는 데 네 주기(4초)가 걸린다.
+     */
+    @Test
+    void eachTickDrainsEverythingPending() {
+        writer = new LoginCountWriter(userRepository, 1000, 10);
+        for (long seq = 1; seq <= 35; seq++)
+            writer.record(seq, NOW);
+
+        assertTimeoutPreemptively(Duration.ofMillis(1900), () -> {
+            while (batches.size() < 4)
+                TimeUnit.MILLISECONDS.sleep(10);
+        });
+        assertThat(batches).extracting(List::size).containsExactly(10, 10, 10, 5);
+        assertThat(writer.pendingCount()).isZero();
+    }
+
+    @Test
+    void shutdownDrainsPendingCounts() throws InterruptedException {
+        writer = new LoginCountWriter(userRepository, NEVER, 10);
+        for (long seq = 1; seq <= 25; seq++)
+            writer.record(seq, NOW);
+
+        writer.shutdown();
+
+        assertThat(writer.pendingCount()).isZero();
+        assertThat(batches).extracting(List::size).containsExactly(10, 10, 5);
+    }
+
+    @Test
+    void shutdownGivesUpWhenDatabaseIsDown() throws InterruptedException {
+        writer = new LoginCountWriter(userRepository, NEVER, 10);
+        writer.record(1, NOW);
+        failures.set(Integer.MAX_VALUE);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), writer::shutdown);
+
+        assertThat(batches).isEmpty();
+        assertThat(writer.pendingCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.prgrms.socialserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixTreeTest {
+
+    @Test
+    void scanVisitsPrefixedKeysAfterCursorInOrder() {
+        RadixTree tree = new RadixTree();
+        tree.put("moc.liamg@b", 2);
+        tree.put("moc.liamg@a", 1);
+        tree.put("moc.liamg.liam@c", 3);
+        tree.put("moc.revan@d", 4);
+
+        assertThat(keys(tree, "moc.liamg", null, 10)).containsExactly("moc.liamg.liam@c", "moc.liamg@a", "moc.liamg@b");
+        assertThat(keys(tree, "moc.liamg", "moc.liamg@a", 10)).containsExactly("moc.liamg@b");
+        assertThat(keys(tree, "moc", null, 2)).containsExactly("moc.liamg.liam@c", "moc.liamg@a");
+        assertThat(keys(tree, "ten", null, 10)).isEmpty();
+    }
+
+    @Test
+    void behavesLikeSortedMapUnderRandomUpdates() {
+        RadixTree tree = new RadixTree();
+        TreeMap<String, Long> expected = new TreeMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = randomKey(random);
+            if (random.nextInt(3) == 0) {
+                assertThat(tree.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                tree.put(key, i);
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertThat(tree.size()).isEqualTo(expected.size());
+        for (int i = 0; i < 200; i++) {
+            String key = randomKey(random);
+            String prefix = key.substring(0, Math.min(key.length(), random.nextInt(3)));
+            String after = random.nextBoolean() ? null : randomKey(random);
+            List<String> matched = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : (after == null ? expected : expected.tailMap(after, false)).entrySet()) {
+                if (entry.getKey().startsWith(prefix))
+                    matched.add(entry.getKey());
+            }
+            assertThat(keys(tree, prefix, after, Integer.MAX_VALUE)).isEqualTo(matched);
+        }
+    }
+
+    private static List<String> keys(RadixTree tree, String prefix, String after, int limit) {
+        List<String> keys = new ArrayList<>();
+        tree.scan(prefix, after, (key, value) -> {
+            keys.add(key.toString());
+            return keys.size() < limit;
+        });
+        return keys;
+    }
+
+    private static String randomKey(Random random) {
+        int length = 1 + random.nextInt(6);
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            key.append("ab.@c".charAt(random.nextInt(5)));
+        return key.toString();
+    }
+}
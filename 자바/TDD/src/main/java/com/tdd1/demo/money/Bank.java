@@ -1,24 +1,15 @@
 package com.tdd1.demo.money;
 
-import org.springframework.web.bind.annotation.InitBinder;
+public class Bank implements RateSource {
 
-import java.util.Hashtable;
-
-public class Bank {
-
-    private Hashtable rates = new Hashtable();
+    private final RateTable rates = new RateTable();
 
     void addRate(String from, String to, int rate) {
-        rates.put(new Pair(from, to), new Integer(rate));
-    }
-
-    int rate(String from, String to) {
-        if (from.equals(to)) return 1;
-        Integer rate = (Integer) rates.get(new Pair(from, to));
-        return rate.intValue();
+        rates.put(Currencies.idOf(from), Currencies.idOf(to), rate);
     }
 
-    Money reduce(Expression source, String to){
-       return source.reduce(this, to);
+    @Override
+    public int rate(int from, int to) {
+        return rates.get(from, to);
     }
 }
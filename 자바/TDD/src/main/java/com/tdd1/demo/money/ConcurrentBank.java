@@ -0,0 +1,86 @@
+package com.tdd1.demo.money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 환율을 읽는 스레드와 바꾸는 스레드가 같이 쓰는 Bank.
+// 읽기는 volatile 필드 하나에서 바뀌지 않는 Snapshot 을 꺼내 쓰고 lock 을 잡지 않는다.
+// 쓰기는 지금 표를 복사해 한 batch 의 환율을 모두 넣은 뒤 version 을 올린 새 Snapshot 으로 바꿔 낀다. (copy-on-write)
+// RateSource 를 구현하지 않으므로 Expression 에 직접 넘길 수 없다. reduce 는 시작할 때 꺼낸 Snapshot 하나로 끝까지 계산한다.
+public class ConcurrentBank {
+
+    private volatile Snapshot current = new Snapshot(new RateTable(), 0);
+
+    Snapshot snapshot() {
+        return current;
+    }
+
+    long version() {
+        return current.version();
+    }
+
+    RateUpdate update() {
+        return new RateUpdate();
+    }
+
+    void addRate(String from, String to, int rate) {
+        update().addRate(from, to, rate).publish();
+    }
+
+    int rate(String from, String to) {
+        return current.rate(from, to);
+    }
+
+    Money reduce(Expression source, String to) {
+        return current.reduce(source, to);
+    }
+
+    private synchronized Snapshot publish(List<int[]> rates) {
+        Snapshot base = current;
+        RateTable table = base.rates.copy();
+        table.putAll(rates);
+        Snapshot next = new Snapshot(table, base.version + 1);
+        current = next;
+        return next;
+    }
+
+    // 어느 version 의 환율로 계산했는지 남길 수 있도록 version 을 함께 가진 읽기 전용 환율.
+    static final class Snapshot implements RateSource {
+
+        private final RateTable rates;
+        private final long version;
+
+        private Snapshot(RateTable rates, long version) {
+            this.rates = rates;
+            this.version = version;
+        }
+
+        long version() {
+            return version;
+        }
+
+        @Override
+        public int rate(int from, int to) {
+            return rates.get(from, to);
+        }
+    }
+
+    // 여러 환율을 모아 한 번에 새 Snapshot 으로 내보낸다.
+    final class RateUpdate {
+
+        private final List<int[]> rates = new ArrayList<>();
+
+        private RateUpdate() {
+        }
+
+        RateUpdate addRate(String from, String to, int rate) {
+            if (rate <= 0) throw new IllegalArgumentException("rate must be positive.");
+            rates.add(new int[]{Currencies.idOf(from), Currencies.idOf(to), rate});
+            return this;
+        }
+
+        Snapshot publish() {
+            return ConcurrentBank.this.publish(rates);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.tdd1.demo.money;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 통화 코드를 0 부터 시작하는 작은 int id 로 바꿔 둔다. 한 번 받은 id 는 바뀌지 않는다.
+class Currencies {
+
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private static volatile String[] codes = new String[16];
+
+    private Currencies() {
+    }
+
+    static int idOf(String code) {
+        Integer id = ids.get(code);
+        if (id != null) return id;
+        return register(code);
+    }
+
+    static String codeOf(int id) {
+        return codes[id];
+    }
+
+    static int count() {
+        return nextId.get();
+    }
+
+    private static synchronized int register(String code) {
+        Integer id = ids.get(code);
+        if (id != null) return id;
+
+        int newId = nextId.get();
+        String[] current = codes;
+        if (newId == current.length) {
+            String[] grown = new String[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        current[newId] = code;
+        codes = current;
+        nextId.set(newId + 1);
+        ids.put(code, newId);
+        return newId;
+    }
+}
@@ -1,9 +1,9 @@
 package com.tdd1.demo.money;
 
 public interface Expression {
-    Money reduce(Bank bank, String to);
+    Money reduce(RateSource bank, String to);
 
-    Expression plus(Expression tenFrancs);
+    Expression plus(Expression addend);
 
     Expression times(int multiplier);
 }
@@ -4,10 +4,12 @@ class Money implements Expression{
 
     protected int amount;
     protected String currency;
+    protected int currencyId;
 
     public Money(int amount, String currency) {
         this.amount = amount;
         this.currency = currency;
+        this.currencyId = Currencies.idOf(currency);
     }
 
 
@@ -20,7 +22,7 @@ class Money implements Expression{
 
     public boolean equals(Object object) {
         Money money = (Money) object;
-        return amount == money.amount && currency().equals(money.currency);
+        return amount == money.amount && currencyId == money.currencyId;
     }
 
     String currency(){
@@ -36,8 +38,8 @@ class Money implements Expression{
         return new Sum(this, addend);
     }
 
-    public Money reduce(Bank bank, String to) {
-        int rate = bank.rate(currency, to);
+    public Money reduce(RateSource bank, String to) {
+        int rate = bank.rate(currencyId, Currencies.idOf(to));
         return new Money(amount / rate, to);
     }
 }
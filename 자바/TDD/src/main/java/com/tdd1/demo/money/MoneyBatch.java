@@ -0,0 +1,158 @@
+package com.tdd1.demo.money;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+// 많은 Money 를 금액 배열과 통화 id 배열로 나눠 담는다. times, plus, reduce 는 배열을 한 번 도는 반복문이고
+// 넘침은 Math.*Exact 로 ArithmeticException 을 던진다.
+class MoneyBatch {
+
+    private int[] amounts;
+    private int[] currencyIds;
+    private int size;
+
+    MoneyBatch() {
+        this(16);
+    }
+
+    MoneyBatch(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative.");
+        this.amounts = new int[capacity];
+        this.currencyIds = new int[capacity];
+    }
+
+    private MoneyBatch(int[] amounts, int[] currencyIds) {
+        this.amounts = amounts;
+        this.currencyIds = currencyIds;
+        this.size = amounts.length;
+    }
+
+    static MoneyBatch of(List<Money> monies) {
+        MoneyBatch batch = new MoneyBatch(monies.size());
+        for (Money money : monies)
+            batch.add(money);
+        return batch;
+    }
+
+    // Sum 을 펼쳐 Money 하나하나를 담는다.
+    static MoneyBatch of(Expression source) {
+        MoneyBatch batch = new MoneyBatch();
+        Deque<Expression> stack = new ArrayDeque<>();
+        stack.push(source);
+        while (!stack.isEmpty()) {
+            Expression expression = stack.pop();
+            if (expression instanceof Sum) {
+                Sum sum = (Sum) expression;
+                stack.push(sum.addend);
+                stack.push(sum.augend);
+            } else if (expression instanceof Money) {
+                batch.add((Money) expression);
+            } else {
+                throw new IllegalArgumentException("Unsupported expression: " + expression.getClass().getName());
+            }
+        }
+        return batch;
+    }
+
+    MoneyBatch add(Money money) {
+        return add(money.amount, money.currencyId);
+    }
+
+    MoneyBatch add(int amount, String currency) {
+        return add(amount, Currencies.idOf(currency));
+    }
+
+    private MoneyBatch add(int amount, int currencyId) {
+        if (size == amounts.length) {
+            int capacity = Math.max(16, size * 2);
+            amounts = Arrays.copyOf(amounts, capacity);
+            currencyIds = Arrays.copyOf(currencyIds, capacity);
+        }
+        amounts[size] = amount;
+        currencyIds[size] = currencyId;
+        size++;
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Money get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        return new Money(amounts[index], Currencies.codeOf(currencyIds[index]));
+    }
+
+    MoneyBatch times(int multiplier) {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++)
+            result[i] = Math.multiplyExact(amounts[i], multiplier);
+        return new MoneyBatch(result, Arrays.copyOf(currencyIds, size));
+    }
+
+    // 같은 위치끼리 더한다. 두 batch 는 크기와 위치별 통화가 같아야 한다.
+    MoneyBatch plus(MoneyBatch other) {
+        if (other.size != size) throw new IllegalArgumentException("Batch sizes differ: " + size + ", " + other.size);
+
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (currencyIds[i] != other.currencyIds[i])
+                throw new IllegalArgumentException("Currencies differ at " + i + ": "
+                        + Currencies.codeOf(currencyIds[i]) + ", " + Currencies.codeOf(other.currencyIds[i]));
+            result[i] = Math.addExact(amounts[i], other.amounts[i]);
+        }
+        return new MoneyBatch(result, Arrays.copyOf(currencyIds, size));
+    }
+
+    // 전체를 to 통화 하나로 줄인다. Sum 과 같게 통화별 합계를 한 번씩 나눈다.
+    Money reduce(RateSource bank, String to) {
+        long[] totals = new long[Currencies.count()];
+        for (int i = 0; i < size; i++)
+            totals[currencyIds[i]] = Math.addExact(totals[currencyIds[i]], amounts[i]);
+
+        int toId = Currencies.idOf(to);
+        long total = 0;
+        for (int currencyId = 0; currencyId < totals.length; currencyId++) {
+            if (totals[currencyId] != 0)
+                total = Math.addExact(total, totals[currencyId] / bank.rate(currencyId, toId));
+        }
+        return new Money(Math.toIntExact(total), to);
+    }
+
+    // 하나하나를 to 통화로 바꾼다. 환율은 통화마다 한 번만 찾는다.
+    MoneyBatch convert(RateSource bank, String to) {
+        int toId = Currencies.idOf(to);
+        int[] rates = new int[Currencies.count()];
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            int rate = rates[currencyIds[i]];
+            if (rate == 0) {
+                rate = bank.rate(currencyIds[i], toId);
+                rates[currencyIds[i]] = rate;
+            }
+            result[i] = amounts[i] / rate;
+        }
+        int[] ids = new int[size];
+        Arrays.fill(ids, toId);
+        return new MoneyBatch(result, ids);
+    }
+
+    List<Money> toList() {
+        List<Money> monies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            monies.add(get(i));
+        return monies;
+    }
+
+    Expression toExpression() {
+        if (size == 0) throw new IllegalStateException("Batch is empty.");
+
+        Expression expression = get(0);
+        for (int i = 1; i < size; i++)
+            expression = expression.plus(get(i));
+        return expression;
+    }
+}
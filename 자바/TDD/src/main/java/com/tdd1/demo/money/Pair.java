@@ -12,11 +12,12 @@ public class Pair {
 
     @Override
     public int hashCode() {
-        return 0;
+        return 31 * from.hashCode() + to.hashCode();
     }
 
     @Override
     public boolean equals(Object obj) {
+        if (!(obj instanceof Pair)) return false;
         Pair pair = (Pair) obj;
         return from.equals(pair.from) && to.equals(pair.to);
     }
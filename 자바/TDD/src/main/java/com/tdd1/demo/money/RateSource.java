@@ -0,0 +1,16 @@
+package com.tdd1.demo.money;
+
+// 환율을 읽기만 하는 쪽. Expression 은 이것 하나로 줄이므로 한 번의 reduce 가 읽는 환율은 모두 같은 곳에서 온다.
+// Bank 와 ConcurrentBank.Snapshot 이 구현한다. ConcurrentBank 는 구현하지 않고, reduce 마다 Snapshot 하나를 꺼내 넘긴다.
+public interface RateSource {
+
+    int rate(int from, int to);
+
+    default int rate(String from, String to) {
+        return rate(Currencies.idOf(from), Currencies.idOf(to));
+    }
+
+    default Money reduce(Expression source, String to) {
+        return source.reduce(this, to);
+    }
+}
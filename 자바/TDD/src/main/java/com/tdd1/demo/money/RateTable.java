@@ -0,0 +1,138 @@
+package com.tdd1.demo.money;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+
+// 통화 id 로 찾는 환율 표. from 행, to 열의 int 배열에 담고, 0 은 환율이 없다는 뜻이다.
+// direct 는 addRate 로 넣은 환율이고, best 는 get 이 돌려줄 환율이다.
+// A -> B -> C 로 바꾸면 두 번 나누므로 거쳐 가는 환율은 두 환율의 곱이다. (int 를 넘는 곱은 쓰지 않는다)
+// 규칙은 하나다: addRate 로 넣은 쌍은 그 환율을 쓰고, 넣지 않은 쌍은 어떤 통화 K 에 대한 best(A, K) * best(K, C) 중 가장 작은 값을 쓴다.
+// 그래서 거쳐 가는 환율도 넣은 쌍은 넣은 값으로 계산하고, 표의 환율만으로는 만들 수 없는 경로로 돌아가지 않는다.
+// best 는 환율을 넣을 때마다 갱신해 두므로 get 은 배열 한 칸만 읽는다.
+// 새 통화 id 가 들어오면 표를 두 배씩 늘린다. 여러 스레드에서 같이 쓰지 않는다.
+class RateTable {
+
+    private int size;
+    private int[] direct;
+    private int[] best;
+
+    RateTable() {
+        this(16);
+    }
+
+    RateTable(int initialSize) {
+        if (initialSize <= 0) throw new IllegalArgumentException("initialSize must be positive.");
+        this.size = initialSize;
+        this.direct = new int[initialSize * initialSize];
+        this.best = new int[initialSize * initialSize];
+    }
+
+    void put(int from, int to, int rate) {
+        putAll(Collections.singletonList(new int[]{from, to, rate}));
+    }
+
+    // {from, to, rate} 여러 개를 넣는다.
+    // 어느 쌍의 값이 작아지기만 했으면 그 쌍에서부터 퍼뜨리고, 커진 쌍이 있으면 마지막에 best 를 한 번만 다시 계산한다.
+    void putAll(Iterable<int[]> rates) {
+        Deque<int[]> lowered = new ArrayDeque<>();
+        boolean raised = false;
+        for (int[] rate : rates) {
+            int from = rate[0], to = rate[1], value = rate[2];
+            if (value <= 0) throw new IllegalArgumentException("rate must be positive.");
+            ensureSize(Math.max(from, to) + 1);
+            if (from == to) continue;
+
+            direct[from * size + to] = value;
+            int current = best[from * size + to];
+            if (current == 0 || value < current) {
+                best[from * size + to] = value;
+                lowered.add(new int[]{from, to});
+            } else if (value > current) {
+                raised = true;
+            }
+        }
+        if (raised)
+            recompute();
+        else
+            propagate(lowered);
+    }
+
+    int get(int from, int to) {
+        if (from == to) return 1;
+        int rate = from < size && to < size ? best[from * size + to] : 0;
+        if (rate == 0)
+            throw new IllegalArgumentException("No rate from " + Currencies.codeOf(from) + " to " + Currencies.codeOf(to));
+        return rate;
+    }
+
+    boolean contains(int from, int to) {
+        return from == to || from < size && to < size && best[from * size + to] != 0;
+    }
+
+    RateTable copy() {
+        RateTable copy = new RateTable(size);
+        System.arraycopy(direct, 0, copy.direct, 0, direct.length);
+        System.arraycopy(best, 0, copy.best, 0, best.length);
+        return copy;
+    }
+
+    // 값이 작아진 쌍 A -> B 를 곱으로 쓰는 쌍(A -> B -> j, i -> A -> B)만 다시 확인하고, 작아진 쌍은 다시 퍼뜨린다.
+    // 바뀐 쌍 하나에 O(n) 이고, 값은 줄기만 하므로 더 줄일 쌍이 없으면 멈춘다.
+    private void propagate(Deque<int[]> lowered) {
+        while (!lowered.isEmpty()) {
+            int[] pair = lowered.poll();
+            int a = pair[0], b = pair[1];
+            long ab = best[a * size + b];
+            for (int j = 0; j < size; j++) {
+                long bj = best[b * size + j];
+                if (j != a && j != b && bj != 0 && improve(a, j, ab * bj))
+                    lowered.add(new int[]{a, j});
+            }
+            for (int i = 0; i < size; i++) {
+                long ia = best[i * size + a];
+                if (i != a && i != b && ia != 0 && improve(i, b, ia * ab))
+                    lowered.add(new int[]{i, b});
+            }
+        }
+    }
+
+    // 넣은 환율이 커졌을 때: 그 값을 쓰던 쌍을 찾아 되돌릴 수 없으므로 direct 에서 다시 계산한다.
+    private void recompute() {
+        System.arraycopy(direct, 0, best, 0, direct.length);
+        Deque<int[]> registered = new ArrayDeque<>();
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                if (direct[from * size + to] != 0)
+                    registered.add(new int[]{from, to});
+            }
+        }
+        propagate(registered);
+    }
+
+    // 넣은 쌍은 고치지 않는다.
+    private boolean improve(int from, int to, long rate) {
+        if (rate > Integer.MAX_VALUE || direct[from * size + to] != 0) return false;
+        int current = best[from * size + to];
+        if (current != 0 && rate >= current) return false;
+        best[from * size + to] = (int) rate;
+        return true;
+    }
+
+    private void ensureSize(int required) {
+        if (required <= size) return;
+
+        int newSize = size;
+        while (newSize < required) newSize *= 2;
+        direct = grow(direct, size, newSize);
+        best = grow(best, size, newSize);
+        size = newSize;
+    }
+
+    private static int[] grow(int[] matrix, int size, int newSize) {
+        int[] grown = new int[newSize * newSize];
+        for (int from = 0; from < size; from++)
+            System.arraycopy(matrix, from * size, grown, from * newSize, size);
+        return grown;
+    }
+}
@@ -0,0 +1,65 @@
+package com.tdd1.demo.money;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+// Expression 트리를 통화별 금액 합계로 펼쳐 둔 것. 트리는 재귀 없이 스택으로 한 번만 훑는다.
+// reduce 는 통화마다 RateSource.rate 를 한 번 부르고 그 통화의 합계를 한 번 나눈다.
+class ReducePlan {
+
+    private final int[] currencyIds;
+    private final long[] amounts;
+
+    private ReducePlan(int[] currencyIds, long[] amounts) {
+        this.currencyIds = currencyIds;
+        this.amounts = amounts;
+    }
+
+    static ReducePlan of(Expression source) {
+        int[] slots = new int[Currencies.count()];
+        Arrays.fill(slots, -1);
+        int[] currencyIds = new int[4];
+        long[] amounts = new long[4];
+        int size = 0;
+
+        Deque<Expression> stack = new ArrayDeque<>();
+        stack.push(source);
+        while (!stack.isEmpty()) {
+            Expression expression = stack.pop();
+            if (expression instanceof Sum) {
+                Sum sum = (Sum) expression;
+                stack.push(sum.addend);
+                stack.push(sum.augend);
+            } else if (expression instanceof Money) {
+                Money money = (Money) expression;
+                int slot = slots[money.currencyId];
+                if (slot < 0) {
+                    if (size == currencyIds.length) {
+                        currencyIds = Arrays.copyOf(currencyIds, size * 2);
+                        amounts = Arrays.copyOf(amounts, size * 2);
+                    }
+                    slot = size++;
+                    slots[money.currencyId] = slot;
+                    currencyIds[slot] = money.currencyId;
+                }
+                amounts[slot] = Math.addExact(amounts[slot], money.amount);
+            } else {
+                throw new IllegalArgumentException("Unsupported expression: " + expression.getClass().getName());
+            }
+        }
+        return new ReducePlan(Arrays.copyOf(currencyIds, size), Arrays.copyOf(amounts, size));
+    }
+
+    Money reduce(RateSource bank, String to) {
+        int toId = Currencies.idOf(to);
+        long total = 0;
+        for (int i = 0; i < currencyIds.length; i++)
+            total = Math.addExact(total, amounts[i] / bank.rate(currencyIds[i], toId));
+        return new Money(Math.toIntExact(total), to);
+    }
+
+    int currencyCount() {
+        return currencyIds.length;
+    }
+}
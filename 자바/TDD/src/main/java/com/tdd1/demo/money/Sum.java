@@ -1,7 +1,12 @@
 package com.tdd1.demo.money;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 public class Sum implements Expression{
 
+    private static final Object COMBINE = new Object();
+
     Expression augend;
     Expression addend;
 
@@ -10,19 +15,37 @@ public class Sum implements Expression{
         this.augend = augend;
     }
 
-    public Money reduce(Bank bank, String  to) {
-        int amount = augend.reduce(bank, to).amount + addend.reduce(bank, to).amount;
-        return new Money(amount, to);
+    public Money reduce(RateSource bank, String  to) {
+        return ReducePlan.of(this).reduce(bank, to);
     }
 
     @Override
-    public Expression plus(Expression tenFrancs) {
+    public Expression plus(Expression addend) {
         return new Sum(this, addend);
     }
 
+    // 아주 깊은 Sum 도 스택 넘침 없이 곱하도록 재귀 대신 스택으로 훑는다.
+    // 잎(Money)부터 곱하고, COMBINE 을 만나면 곱해 둔 두 값을 같은 모양의 Sum 으로 다시 묶는다.
     @Override
     public Expression times(int multiplier) {
-        return new Sum(augend.times(multiplier),
-                addend.times(multiplier));
+        Deque<Object> work = new ArrayDeque<>();
+        Deque<Expression> results = new ArrayDeque<>();
+        work.push(this);
+        while (!work.isEmpty()) {
+            Object item = work.pop();
+            if (item == COMBINE) {
+                Expression addend = results.pop();
+                Expression augend = results.pop();
+                results.push(new Sum(augend, addend));
+            } else if (item instanceof Sum) {
+                Sum sum = (Sum) item;
+                work.push(COMBINE);
+                work.push(sum.addend);
+                work.push(sum.augend);
+            } else {
+                results.push(((Expression) item).times(multiplier));
+            }
+        }
+        return results.pop();
     }
 }
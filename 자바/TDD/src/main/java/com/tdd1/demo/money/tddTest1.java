@@ -4,6 +4,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -132,4 +134,251 @@ public class tddTest1 {
         assertEquals(Money.dollar(20), result);
     }
 
+    @DisplayName("같은 Pair 는 같은 해시")
+    @Test
+    public void testPairHashCode() {
+        assertEquals(new Pair("CHF", "USD"), new Pair("CHF", "USD"));
+        assertEquals(new Pair("CHF", "USD").hashCode(), new Pair("CHF", "USD").hashCode());
+        assertNotEquals(new Pair("CHF", "USD").hashCode(), new Pair("USD", "CHF").hashCode());
+    }
+
+    @DisplayName("환율이 없으면 예외")
+    @Test
+    public void testMissingRate() {
+        Bank bank = new Bank();
+        bank.addRate("CHF", "USD", 2);
+        assertThrows(IllegalArgumentException.class, () -> bank.rate("USD", "CHF"));
+        assertThrows(IllegalArgumentException.class, () -> bank.rate("KRW", "USD"));
+    }
+
+    @DisplayName("통화가 많아도 환율 찾기")
+    @Test
+    public void testManyCurrencies() {
+        Bank bank = new Bank();
+        for (int i = 0; i < 300; i++)
+            bank.addRate("C" + i, "USD", i + 1);
+        bank.addRate("CHF", "USD", 2);
+
+        for (int i = 0; i < 300; i++)
+            assertEquals(i + 1, bank.rate("C" + i, "USD"));
+        assertEquals(Money.dollar(1), bank.reduce(Money.franc(2), "USD"));
+        assertEquals(Money.dollar(3), bank.reduce(new Money(300, "C99"), "USD"));
+    }
+
+    @DisplayName("Sum 에 더하면 더한 값이 들어간다")
+    @Test
+    public void testSumPlusAddsArgument() {
+        Bank bank = new Bank();
+        bank.addRate("CHF", "USD", 2);
+        Expression sum = new Sum(Money.dollar(5), Money.franc(10)).plus(Money.dollar(1));
+        assertEquals(Money.dollar(11), bank.reduce(sum, "USD"));
+    }
+
+    @DisplayName("아주 깊은 Sum 도 스택 넘침 없이 줄이기")
+    @Test
+    public void testReduceDeepSum() {
+        Bank bank = new Bank();
+        bank.addRate("CHF", "USD", 2);
+        Expression sum = Money.dollar(0);
+        for (int i = 0; i < 100_000; i++)
+            sum = sum.plus(i % 2 == 0 ? Money.dollar(1) : Money.franc(2));
+        assertEquals(Money.dollar(100_000), bank.reduce(sum, "USD"));
+    }
+
+    @DisplayName("아주 깊은 Sum 도 스택 넘침 없이 곱하기")
+    @Test
+    public void testTimesDeepSum() {
+        Bank bank = new Bank();
+        bank.addRate("CHF", "USD", 2);
+        Expression sum = Money.dollar(0);
+        for (int i = 0; i < 100_000; i++)
+            sum = sum.plus(i % 2 == 0 ? Money.dollar(1) : Money.franc(2));
+        assertEquals(Money.dollar(200_000), bank.reduce(sum.times(2), "USD"));
+    }
+
+    @DisplayName("통화별 합계를 한 번 나눈다 (3CHF + 3CHF 는 3USD)")
+    @Test
+    public void testReduceDividesPerCurrencyTotal() {
+        Bank bank = new Bank();
+        bank.addRate("CHF", "USD", 2);
+        Expression sum = Money.franc(3).plus(Money.franc(3));
+        assertEquals(Money.dollar(3), bank.reduce(sum, "USD"));
+        assertEquals(Money.dollar(3), MoneyBatch.of(sum).reduce(bank, "USD"));
+    }
+
+    @DisplayName("통화마다 환율은 한 번만 찾는다")
+    @Test
+    public void testReducePlanPerCurrency() {
+        Expression sum = Money.dollar(1);
+        for (int i = 0; i < 1_000; i++)
+            sum = sum.plus(Money.franc(3));
+        ReducePlan plan = ReducePlan.of(sum);
+        assertEquals(2, plan.currencyCount());
+
+        int[] lookups = new int[1];
+        Bank bank = new Bank() {
+            @Override
+            public int rate(int from, int to) {
+                lookups[0]++;
+                return super.rate(from, to);
+            }
+        };
+        bank.addRate("CHF", "USD", 2);
+        assertEquals(Money.dollar(1 + 1_500), plan.reduce(bank, "USD"));
+        assertEquals(2, lookups[0]);
+    }
+
+    @DisplayName("MoneyBatch 로 한꺼번에 줄이기")
+    @Test
+    public void testMoneyBatchReduce() {
+        Bank bank = new Bank();
+        bank.addRate("CHF", "USD", 2);
+        Expression sum = Money.dollar(5).plus(Money.franc(10)).plus(Money.dollar(1));
+        MoneyBatch batch = MoneyBatch.of(sum);
+
+        assertEquals(3, batch.size());
+        assertEquals(Money.franc(10), batch.get(1));
+        assertEquals(bank.reduce(sum, "USD"), batch.reduce(bank, "USD"));
+        assertEquals(Money.dollar(22), batch.times(2).reduce(bank, "USD"));
+        assertEquals(Money.dollar(22), batch.plus(batch).reduce(bank, "USD"));
+        assertEquals(bank.reduce(batch.toExpression(), "USD"), batch.reduce(bank, "USD"));
+    }
+
+    @DisplayName("MoneyBatch 하나하나 바꾸기")
+    @Test
+    public void testMoneyBatchConvert() {
+        Bank bank = new Bank();
+        bank.addRate("CHF", "USD", 2);
+        MoneyBatch converted = MoneyBatch.of(Arrays.asList(Money.franc(4), Money.dollar(3), Money.franc(7)))
+                .convert(bank, "USD");
+        assertEquals(Arrays.asList(Money.dollar(2), Money.dollar(3), Money.dollar(3)), converted.toList());
+    }
+
+    @DisplayName("MoneyBatch 넘침과 통화 불일치")
+    @Test
+    public void testMoneyBatchOverflow() {
+        MoneyBatch batch = new MoneyBatch().add(Integer.MAX_VALUE, "USD");
+        assertThrows(ArithmeticException.class, () -> batch.times(2));
+        assertThrows(ArithmeticException.class, () -> batch.plus(batch));
+        assertThrows(IllegalArgumentException.class, () -> batch.plus(new MoneyBatch().add(Money.franc(1))));
+    }
+
+    @DisplayName("ConcurrentBank 는 batch 마다 version 을 올린다")
+    @Test
+    public void testConcurrentBankVersion() {
+        ConcurrentBank bank = new ConcurrentBank();
+        ConcurrentBank.Snapshot before = bank.snapshot();
+        ConcurrentBank.Snapshot after = bank.update()
+                .addRate("CHF", "USD", 2)
+                .addRate("KRW", "USD", 1000)
+                .publish();
+
+        assertEquals(0, before.version());
+        assertEquals(1, after.version());
+        assertEquals(1, bank.version());
+        assertThrows(IllegalArgumentException.class, () -> before.rate("CHF", "USD"));
+        assertEquals(Money.dollar(10), after.reduce(Money.dollar(5).plus(Money.franc(10)), "USD"));
+        assertEquals(Money.dollar(10), bank.reduce(Money.dollar(5).plus(Money.franc(10)), "USD"));
+    }
+
+    @DisplayName("환율이 바뀌는 중에도 한 번의 reduce 는 한 snapshot 으로 계산")
+    @Test
+    public void testConcurrentBankConsistentReduce() throws InterruptedException {
+        ConcurrentBank bank = new ConcurrentBank();
+        bank.update().addRate("CHF", "USD", 1).addRate("EUR", "USD", 1).publish();
+        Expression sum = Money.franc(2).plus(new Money(2, "EUR"));
+
+        Thread feed = new Thread(() -> {
+            for (int i = 2; i <= 2_000; i++) {
+                int rate = i % 2 + 1;
+                bank.update().addRate("CHF", "USD", rate).addRate("EUR", "USD", rate).publish();
+            }
+        });
+        feed.start();
+        while (feed.isAlive()) {
+            int amount = bank.reduce(sum, "USD").amount;
+            assertTrue(amount == 2 || amount == 4, "mixed snapshots: " + amount);
+        }
+        feed.join();
+        assertEquals(2_000, bank.version());
+    }
+
+    @DisplayName("다른 통화를 거쳐 가는 환율")
+    @Test
+    public void testCrossRate() {
+        Bank bank = new Bank();
+        bank.addRate("KRW", "JPY", 10);
+        bank.addRate("JPY", "USD", 100);
+        assertEquals(1_000, bank.rate("KRW", "USD"));
+        assertEquals(Money.dollar(5), bank.reduce(new Money(5_000, "KRW"), "USD"));
+        assertThrows(IllegalArgumentException.class, () -> bank.rate("USD", "KRW"));
+    }
+
+    @DisplayName("직접 넣은 환율은 거쳐 가는 환율보다 우선")
+    @Test
+    public void testDirectRateIsAuthoritative() {
+        Bank bank = new Bank();
+        bank.addRate("KRW", "JPY", 10);
+        bank.addRate("JPY", "USD", 100);
+
+        bank.addRate("KRW", "USD", 900);
+        assertEquals(900, bank.rate("KRW", "USD"));
+        bank.addRate("KRW", "USD", 2_000);
+        assertEquals(2_000, bank.rate("KRW", "USD"));
+        bank.addRate("JPY", "USD", 50);
+        assertEquals(2_000, bank.rate("KRW", "USD"));
+    }
+
+    @DisplayName("거쳐 가는 환율도 넣은 쌍은 넣은 환율로 계산")
+    @Test
+    public void testCrossRateUsesRegisteredRates() {
+        Bank bank = new Bank();
+        bank.addRate("KRW", "JPY", 1);
+        bank.addRate("JPY", "USD", 2);
+        bank.addRate("KRW", "USD", 4);
+        bank.addRate("USD", "EUR", 3);
+        bank.addRate("JPY", "EUR", 100);
+
+        assertEquals(4, bank.rate("KRW", "USD"));
+        assertEquals(100, bank.rate("JPY", "EUR"));
+        // KRW -> JPY -> USD -> EUR (6) 은 KRW -> USD 와 JPY -> EUR 을 모두 넣은 값과 다르게 쓰는 경로다.
+        assertEquals(12, bank.rate("KRW", "EUR"));
+
+        assertEquals(bank.rate("KRW", "USD") * bank.rate("USD", "EUR"), bank.rate("KRW", "EUR"));
+        assertTrue(bank.rate("KRW", "EUR") <= bank.rate("KRW", "JPY") * bank.rate("JPY", "EUR"));
+
+        bank.addRate("KRW", "USD", 2);
+        assertEquals(6, bank.rate("KRW", "EUR"));
+        bank.addRate("KRW", "USD", 5);
+        assertEquals(15, bank.rate("KRW", "EUR"));
+    }
+
+    @DisplayName("환율이 바뀌면 넣지 않은 쌍의 거쳐 가는 환율도 다시 찾기")
+    @Test
+    public void testCrossRateUpdate() {
+        Bank bank = new Bank();
+        bank.addRate("KRW", "JPY", 10);
+        bank.addRate("JPY", "USD", 100);
+        bank.addRate("KRW", "EUR", 1_500);
+        bank.addRate("EUR", "USD", 1);
+        assertEquals(1_000, bank.rate("KRW", "USD"));
+
+        bank.addRate("JPY", "USD", 300);
+        assertEquals(1_500, bank.rate("KRW", "USD"));
+        bank.addRate("EUR", "USD", 3);
+        assertEquals(3_000, bank.rate("KRW", "USD"));
+    }
+
+    @DisplayName("ConcurrentBank 도 거쳐 가는 환율을 한 번에 반영")
+    @Test
+    public void testConcurrentBankCrossRate() {
+        ConcurrentBank bank = new ConcurrentBank();
+        bank.update().addRate("KRW", "JPY", 10).addRate("JPY", "USD", 100).publish();
+        ConcurrentBank.Snapshot before = bank.snapshot();
+        bank.update().addRate("KRW", "JPY", 20).addRate("EUR", "USD", 2).publish();
+
+        assertEquals(1_000, before.rate("KRW", "USD"));
+        assertEquals(2_000, bank.rate("KRW", "USD"));
+    }
+
 }
@@ -0,0 +1,131 @@
+package com.tdd1.demo.money;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Hashtable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 통화가 수백 개일 때 환율 찾기와 Money.reduce 비용을 비교한다.
+ * legacy 는 Hashtable 에 hashCode 가 0 인 Pair 를 키로 넣던 이전 Bank 이다.
+ * 실행: test-compile 후 main 을 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankRateBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    // legacy 는 모든 환율이 한 bucket 에 들어가므로 통화마다 환율을 몇 개만 둔다.
+    private static final int RATES_PER_CURRENCY = 4;
+
+    @Param({"100", "500"})
+    private int currencies;
+
+    private Bank bank;
+
+    private LegacyBank legacyBank;
+
+    private String[] froms;
+
+    private String[] tos;
+
+    private Money[] monies;
+
+    @Setup
+    public void setUp() {
+        bank = new Bank();
+        legacyBank = new LegacyBank();
+        for (int i = 0; i < currencies; i++) {
+            for (int k = 1; k <= RATES_PER_CURRENCY; k++) {
+                String to = "C" + (i + k) % currencies;
+                bank.addRate("C" + i, to, k + 1);
+                legacyBank.addRate("C" + i, to, k + 1);
+            }
+        }
+
+        Random random = new Random(42);
+        froms = new String[LOOKUPS];
+        tos = new String[LOOKUPS];
+        monies = new Money[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int from = random.nextInt(currencies);
+            froms[i] = "C" + from;
+            tos[i] = "C" + (from + 1 + random.nextInt(RATES_PER_CURRENCY)) % currencies;
+            monies[i] = new Money(random.nextInt(10_000), froms[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void rate(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++)
+            blackhole.consume(bank.rate(froms[i], tos[i]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void rateLegacy(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++)
+            blackhole.consume(legacyBank.rate(froms[i], tos[i]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void reduce(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++)
+            blackhole.consume(monies[i].reduce(bank, tos[i]));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BankRateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    static class LegacyBank {
+
+        private final Hashtable rates = new Hashtable();
+
+        void addRate(String from, String to, int rate) {
+            rates.put(new LegacyPair(from, to), new Integer(rate));
+        }
+
+        int rate(String from, String to) {
+            if (from.equals(to)) return 1;
+            Integer rate = (Integer) rates.get(new LegacyPair(from, to));
+            return rate.intValue();
+        }
+    }
+
+    static class LegacyPair {
+
+        private final String from;
+        private final String to;
+
+        LegacyPair(String from, String to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            LegacyPair pair = (LegacyPair) obj;
+            return from.equals(pair.from) && to.equals(pair.to);
+        }
+    }
+}